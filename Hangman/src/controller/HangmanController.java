@@ -1,22 +1,22 @@
 package controller;
 
 import apptemplate.AppTemplate;
-import com.sun.javafx.fxml.PropertyNotFoundException;
+import data.GameArchive;
 import data.GameData;
+import data.GameDataFile;
+import data.MoveJournal;
+import engine.HangmanEngine;
+import gui.GameDelta;
+import gui.GameView;
 import gui.Workspace;
-import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
-import javafx.geometry.Bounds;
+import javafx.collections.FXCollections;
 import javafx.scene.control.Button;
-import javafx.scene.control.Label;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.shape.Shape;
-import javafx.scene.text.Text;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import propertymanager.PropertyManager;
@@ -25,9 +25,23 @@ import ui.YesNoCancelDialogSingleton;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static hangman.HangmanProperties.AUTOSAVE_INTERVAL_MS;
 import static settings.AppPropertyType.*;
 import static settings.InitializationParameters.APP_WORKDIR_PATH;
 
@@ -46,16 +60,27 @@ public class HangmanController implements FileController {
 
     private AppTemplate appTemplate; // shared reference to the application
     private GameData    gamedata;    // shared reference to the game being played, loaded or saved
+    private HangmanEngine engine;    // the rules of the game, applied to gamedata
     private GameState   gamestate;   // the state of the game being shown in the workspace
-    private StackPane[]      progress;    // reference to the text area for the word
-    private boolean     success;     // whether or not player was successful
-    private int         discovered;  // the number of letters already discovered
     private Button      gameButton;  // shared reference to the "start game" button
     private Button      hintButton;  //
-    private FlowPane    guessedKeys; //
-    private Pane    figurePane;
-    private Label       remains;     // dynamically updated label that indicates the number of remaining guesses
+    private GameView    gameView;    // draws the figure, the word and the keyboard
     private Path        workFile;
+    private long        moves;       // the number of moves made so far, to tell whether a game changed during a save
+    private MoveJournal journal;     // the moves made since the last autosave, if the journal could be opened
+    private AutosaveService autosave; // folds the journal into the autosave file every so often, while the game changes
+    private volatile int archiveSlot = -1; // the slot of the game in workFile, if workFile is an archive
+    private Path        autosaveFile; // the autosave file this instance claimed, if it could claim one
+    private FileLock    autosaveLock; // held for as long as the application runs, so no other instance claims the file
+    private boolean     autosaveClaimed; // whether claiming an autosave file was attempted already
+    private boolean     recoveryChecked; // whether the player was asked about the game a previous run left behind
+
+    private static final String  AUTOSAVE_NAME      = "autosave"; // the autosave files are named autosave[-n].hgs
+    private static final int     MAX_AUTOSAVE_FILES = 16;         // one per instance of the application running at once
+    private static final Pattern AUTOSAVE_PATTERN   =
+            Pattern.compile(AUTOSAVE_NAME + "(-\\d+)?\\." + GameDataFile.BINARY_EXTENSION);
+
+    private final List<Consumer<GameState>> stateListeners = new ArrayList<>(); // notified on every state transition
 
     public HangmanController(AppTemplate appTemplate, Button gameButton) {
         this(appTemplate);
@@ -65,6 +90,7 @@ public class HangmanController implements FileController {
     public HangmanController(AppTemplate appTemplate) {
         this.appTemplate = appTemplate;
         this.gamestate = GameState.UNINITIALIZED;
+        addGameStateListener(state -> appTemplate.getGUI().updateWorkspaceToolbar(state.equals(GameState.INITIALIZED_MODIFIED)));
     }
 
     public void enableGameButton() {
@@ -91,8 +117,22 @@ public class HangmanController implements FileController {
         hintButton.setVisible(isVisible);
     }
 
+    /**
+     * Moves the game to the given state and, if the state actually changed, pushes the change to every registered
+     * listener (the file toolbar being the first of them).
+     *
+     * @param gamestate The new state of the game.
+     */
     public void setGameState(GameState gamestate) {
+        if (this.gamestate == gamestate)
+            return;
         this.gamestate = gamestate;
+        for (Consumer<GameState> listener : stateListeners)
+            listener.accept(gamestate);
+    }
+
+    public void addGameStateListener(Consumer<GameState> listener) {
+        stateListeners.add(listener);
     }
 
     public GameState getGamestate() {
@@ -108,59 +148,36 @@ public class HangmanController implements FileController {
      * is to write (and use) the GameData#init() method.
      */
     public void start() {
+        if (offerRecovery())
+            return;
         gamedata = (GameData) appTemplate.getDataComponent();
-        success = false;
-        discovered = 0;
+        engine = new HangmanEngine(gamedata);
 
         Workspace gameWorkspace = (Workspace) appTemplate.getWorkspaceComponent();
 
-        gamedata.init();
+        engine.newGame();
         setGameState(GameState.INITIALIZED_UNMODIFIED);
-        HBox remainingGuessBox = gameWorkspace.getRemainingGuessBox();
-        HBox guessedLetters    = (HBox) gameWorkspace.getGameTextsPane().getChildren().get(1);
-        remains = new Label(Integer.toString(GameData.TOTAL_NUMBER_OF_GUESSES_ALLOWED));
-        remainingGuessBox.getChildren().addAll(new Label("Remaining Guesses: "), remains);
-        initWordGraphics(guessedLetters);
         hintButton = gameWorkspace.getHintGame();
-        hintButton.setVisible(gamedata.getDifficulty());
-
-        guessedKeys = gameWorkspace.getGuessedKeys();
-        for (int i = 'a'; i <= 'z'; i++){
-            StackPane s = new StackPane(new Rectangle(45,45),new Rectangle(40,40), new Text(Character.toString((char)i)));
-            ((Rectangle)s.getChildren().get(0)).setFill(Color.TRANSPARENT);
-            ((Rectangle)s.getChildren().get(1)).setFill(Color.LIGHTCYAN);
-            guessedKeys.getChildren().add(s);
-        }
-        figurePane = gameWorkspace.getFigurePane();
-        figurePane.setPrefSize(500,500);
+        gameView = gameWorkspace.getGameView();
+        gameWorkspace.reset(gamedata);
+        openJournal(false);
+        compactJournal();
+        startAutosave();
         play();
     }
 
     private void end() {
         appTemplate.getGUI().getPrimaryScene().setOnKeyTyped(null);
+        gameView.setOnKeyClicked(null);
+        hintButton.setOnMouseClicked(null);
         gameButton.setDisable(true);
         setGameState(GameState.ENDED);
-        appTemplate.getGUI().updateWorkspaceToolbar(gamestate.equals(GameState.INITIALIZED_MODIFIED));
         Platform.runLater(() -> {
-            for (int i = 0; i < progress.length; i++) {
-                progress[i].getChildren().get(2).setVisible(true);
-                if (!gamedata.getGoodGuesses().contains(((Text)progress[i].getChildren().get(2)).getText().charAt(0))) {
-                    ((Rectangle)progress[i].getChildren().get(1)).setFill(Color.LIGHTBLUE);
-
-                }
-            }
-            if (!success) {
-                int width = 450;
-                int height = 395;
-
-                Shape rightfoot = new Line(width * 0.4, height * 0.55, width * 0.5, height * 0.65);
-                rightfoot.setStrokeWidth(7);
-                figurePane.getChildren().add(rightfoot);
-            }
+            gameView.showEnd(gamedata);
 
             PropertyManager           manager    = PropertyManager.getManager();
             AppMessageDialogSingleton dialog     = AppMessageDialogSingleton.getSingleton();
-            String                    endMessage = manager.getPropertyValue(success ? GAME_WON_MESSAGE : GAME_LOST_MESSAGE);
+            String                    endMessage = manager.getPropertyValue(engine.isWon() ? GAME_WON_MESSAGE : GAME_LOST_MESSAGE);
 
             if (dialog.isShowing())
                 dialog.toFront();
@@ -170,239 +187,75 @@ public class HangmanController implements FileController {
         });
     }
 
-    private void initWordGraphics(HBox guessedLetters) {
-        char[] targetword = gamedata.getTargetWord().toCharArray();
-        progress = new StackPane[targetword.length];
-        for (int i = 0; i < progress.length; i++) {
-            Text t = new Text(Character.toString(targetword[i]));
-            t.setVisible(false);
-            Rectangle rect_out = new Rectangle(25, 25);
-            rect_out.setFill(Color.TRANSPARENT);
-            Rectangle rect_in = new Rectangle(20, 20);
-            rect_in.setFill(Color.WHITE);
-            progress[i] = new StackPane(rect_out,rect_in,t);
-
-        }
-        guessedLetters.getChildren().addAll(progress);
-    }
-
+    /**
+     * Hooks the current game up to the user's input. The key and hint handlers are registered once per game, and every
+     * state change after that is pushed by those handlers, so nothing runs while the player is idle.
+     */
     public void play() {
         disableGameButton();
 
-        for (int i = 9; i >= gamedata.getRemainingGuesses(); i --){
-            // width height are too small.
-            figurePane.getChildren().add(drawGraphic(i));
-        }
-
-        AnimationTimer timer = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-
-                appTemplate.getGUI().updateWorkspaceToolbar(gamestate.equals(GameState.INITIALIZED_MODIFIED));
-                appTemplate.getGUI().getPrimaryScene().setOnKeyTyped((KeyEvent event) -> {
-                    char guess = event.getCharacter().toLowerCase().charAt(0);
-                    if (Character.isLetter(guess) && !alreadyGuessed(guess)) {
-
-                        ((Rectangle)((StackPane)guessedKeys.getChildren().get(guess-'a')).getChildren().get(1)).setFill(Color.AQUA);
-
-                        boolean goodguess = false;
-                        for (int i = 0; i < progress.length; i++) {
-                            if (gamedata.getTargetWord().charAt(i) == guess) {
-                                progress[i].getChildren().get(2).setVisible(true);
-                                gamedata.addGoodGuess(guess);
-                                goodguess = true;
-                                discovered++;
-                            }
-                        }
-                        if (!goodguess) {
-                            gamedata.addBadGuess(guess);
-
-                            figurePane.getChildren().add(drawGraphic(gamedata.getRemainingGuesses()));
-                        }
-                        success = (discovered == progress.length);
-                        remains.setText(Integer.toString(gamedata.getRemainingGuesses()));
-                    }
-                    setGameState(GameState.INITIALIZED_MODIFIED);
-                });
-                if (gamedata.getRemainingGuesses() <= 0 || success)
-                    stop();
-
-                if (gamedata.getRemainingGuesses() == 1){
-                    hintButton.setDisable(true);
-                }
-
-                if (gamedata.getHintReserved()){
-                    hintButton.setOnMouseClicked(e -> {
-
-                        // find letter in target, AND not in goodGuess
-                        char letter_for_hint = hint_letter_finder();
-
-                        for (int i = 0; i < progress.length; i++) {
-                            if (gamedata.getTargetWord().charAt(i) == letter_for_hint) {
-                                progress[i].getChildren().get(2).setVisible(true);
-                                gamedata.addGoodGuess(letter_for_hint);
-                                discovered++;
-                            }
-                        }
-                        ((Rectangle)((StackPane)guessedKeys.getChildren().get(letter_for_hint-'a')).getChildren().get(1)).setFill(Color.AQUA);
-                        gamedata.setHintReserved(false);
-                        gamedata.setRemainingGuesses(gamedata.getRemainingGuesses()-1);
-
-                        HBox remainingGuessBox = ((Workspace) appTemplate.getWorkspaceComponent()).getRemainingGuessBox();
-                        remains = new Label(Integer.toString(gamedata.getRemainingGuesses()));
-                        remainingGuessBox.getChildren().setAll(new Label("Remaining Guesses: "), remains);
+        appTemplate.getGUI().updateWorkspaceToolbar(gamestate.equals(GameState.INITIALIZED_MODIFIED));
+        appTemplate.getGUI().getPrimaryScene().setOnKeyTyped(this::handleGuess);
+        gameView.setOnKeyClicked(this::handleGuess);
+        hintButton.setOnMouseClicked(e -> handleHint());
+        afterMove();
+    }
 
-                        gamedata.addGoodGuess(letter_for_hint);
+    private void handleGuess(KeyEvent event) {
+        if (!event.getCharacter().isEmpty())
+            handleGuess(event.getCharacter().toLowerCase().charAt(0));
+    }
 
-                        figurePane.getChildren().add(drawGraphic(gamedata.getRemainingGuesses()));
+    private void handleGuess(char guess) {
+        HangmanEngine.GuessResult result = engine.guess(guess);
+        if (result == HangmanEngine.GuessResult.GOOD || result == HangmanEngine.GuessResult.BAD) {
+            record(GameDelta.of(gamedata, guess, false));
+            setGameState(GameState.INITIALIZED_MODIFIED);
+            afterMove();
+        }
+    }
 
-                        hintButton.setDisable(true);
+    private void handleHint() {
+        // reveals a letter in target, AND not in goodGuess
+        char letter_for_hint = engine.hint();
+        if (letter_for_hint == 0)
+            return;
 
-                        setGameState(GameState.INITIALIZED_MODIFIED);
-                    });
-                }
-            }
+        record(GameDelta.of(gamedata, letter_for_hint, true));
+        setGameState(GameState.INITIALIZED_MODIFIED);
+        afterMove();
+    }
 
-            @Override
-            public void stop() {
-                super.stop();
-                end();
-            }
-        };
-        timer.start();
+    /** Shows a move that was just made, and appends it to the journal. */
+    private void record(GameDelta delta) {
+        ((Workspace) appTemplate.getWorkspaceComponent()).apply(delta);
+        if (journal != null)
+            journal.append(delta.getLetter(), delta.isHint(), delta.getRemainingGuesses());
+        moves++;
+        if (autosave != null)
+            autosave.markModified();
     }
 
-    private char hint_letter_finder(){
-        for (int letter = 'a'; letter <= 'z'; letter ++){
-            if (!gamedata.getGoodGuesses().contains((char)letter)){
-                for (int i = 0; i < gamedata.getTargetWord().length(); i ++) {
-                    if (gamedata.getTargetWord().charAt(i) == letter) {
-                        return (char)letter;
-                    }
-                }
-            }
+    /** Checks for the end of the game; called once after every move instead of on every frame. */
+    private void afterMove() {
+        if (engine.isOver()) {
+            end();
+            return;
         }
-        throw new PropertyNotFoundException();
-    }
-
-    private Shape drawGraphic(int remainingGuess){
-        figurePane.setPrefSize(500,500);
-
-        Shape shape;
-
-        // TODO avoid hard cording.
-        int width = 450;
-        int height = 395;
-        switch (remainingGuess){
-            case 9:
-                shape = new Line(width*0.1, height*0.8, width, height*0.8);
-                shape.setStrokeWidth(5);
-                shape.setFill(Color.BLACK);
-                break;
-            case 8:
-                shape = new Line(width*0.2,  height*0.8, width*0.2, 0);
-                shape.setStrokeWidth(5);
-                shape.setFill(Color.BLACK);
-                break;
-            case 7:
-                shape = new Line(width*0.2,   0, width*0.4, 0 );
-                shape.setStrokeWidth(5);
-                shape.setFill(Color.BLACK);
-                break;
-            case 6:
-                shape = new Line(width*0.4, 0, width*0.4, height*0.2);
-                shape.setStrokeWidth(5);
-                shape.setFill(Color.BLACK);
-                break;
-            case 5:
-                shape = new Circle(width*0.4,height*0.2+width*0.05,width*0.05);
-                shape.setStrokeWidth(7);
-                break;
-            case 4:
-                shape = new Line(width * 0.4, height * 0.3, width * 0.4, height * 0.55);
-                shape.setStrokeWidth(7);
-                shape.setFill(Color.BLACK);
-                break;
-            case 3:
-                shape = new Line(width * 0.4, height * 0.35, width * 0.3, height * 0.4);
-                shape.setStrokeWidth(7);
-                shape.setFill(Color.BLACK);
-                break;
-            case 2:
-                shape = new Line(width * 0.4, height * 0.35, width * 0.5, height * 0.4);
-                shape.setStrokeWidth(7);
-                shape.setFill(Color.BLACK);
-                break;
-            case 1:
-                shape = new Line(width * 0.4, height * 0.55, width * 0.3, height * 0.65);
-                shape.setStrokeWidth(7);
-                shape.setFill(Color.BLACK);
-                break;
-            default:
-                shape = new Line();
+        if (!engine.canHint()){
+            hintButton.setDisable(true);
         }
-        return shape;
     }
 
     private void restoreGUI() {
         disableGameButton();
         Workspace gameWorkspace = (Workspace) appTemplate.getWorkspaceComponent();
-        gameWorkspace.reinitialize();
-
-        HBox guessedLetters = (HBox) gameWorkspace.getGameTextsPane().getChildren().get(1);
-        restoreWordGraphics(guessedLetters);
-
-        HBox remainingGuessBox = gameWorkspace.getRemainingGuessBox();
-        remains = new Label(Integer.toString(gamedata.getRemainingGuesses()));
-        remainingGuessBox.getChildren().setAll(new Label("Remaining Guesses: "), remains);
-
-        guessedKeys = gameWorkspace.getGuessedKeys();
-        for (int i = 'a'; i <= 'z'; i++){
-            StackPane s = new StackPane(new Rectangle(45,45),new Rectangle(40,40), new Text(Character.toString((char)i)));
-            ((Rectangle)s.getChildren().get(0)).setFill(Color.TRANSPARENT);
-            if (alreadyGuessed((char)i)){
-                ((Rectangle) s.getChildren().get(1)).setFill(Color.AQUA);
-            }else {
-                ((Rectangle) s.getChildren().get(1)).setFill(Color.LIGHTCYAN);
-            }
-            guessedKeys.getChildren().add(s);
-        }
-        hintButton = (Button)gameWorkspace.getGameTextsPane().getChildren().get(3);
-        hintButton.setVisible(gamedata.getDifficulty());
-        hintButton.setDisable(!gamedata.getHintReserved());
-
-        figurePane = gameWorkspace.getFigurePane();
-        figurePane.setPrefSize(500, 500);
-
-
-        success = false;
-
+        hintButton = gameWorkspace.getHintGame();
+        gameView = gameWorkspace.getGameView();
+        gameWorkspace.reset(gamedata);
         play();
     }
 
-    private void restoreWordGraphics(HBox guessedLetters) {
-        discovered = 0;
-        char[] targetword = gamedata.getTargetWord().toCharArray();
-        progress = new StackPane[targetword.length];
-        for (int i = 0; i < progress.length; i++) {
-            Text t = new Text(Character.toString(targetword[i]));
-            t.setVisible(gamedata.getGoodGuesses().contains(t.getText().charAt(0)));
-            if (t.isVisible())
-                discovered++;
-            Rectangle rect_out = new Rectangle(25, 25);
-            rect_out.setFill(Color.TRANSPARENT);
-
-            Rectangle rect_in = new Rectangle(20, 20);
-            rect_in.setFill(Color.WHITE);
-            progress[i] = new StackPane(rect_out, rect_in, t);
-        }
-        guessedLetters.getChildren().addAll(progress);
-    }
-
-    private boolean alreadyGuessed(char c) {
-        return gamedata.getGoodGuesses().contains(c) || gamedata.getBadGuesses().contains(c);
-    }
-
     @Override
     public void handleNewRequest() {
         AppMessageDialogSingleton messageDialog   = AppMessageDialogSingleton.getSingleton();
@@ -418,20 +271,32 @@ public class HangmanController implements FileController {
             appTemplate.getDataComponent().reset();                // reset the data (should be reflected in GUI)
             appTemplate.getWorkspaceComponent().reloadWorkspace(); // load data into workspace
             ensureActivatedWorkspace();                            // ensure workspace is activated
-            workFile = null;                                       // new workspace has never been saved to a file
-            ((Workspace) appTemplate.getWorkspaceComponent()).reinitialize();
+            setWorkFile(null);                                     // new workspace has never been saved to a file
+            closeJournal();
+            ((Workspace) appTemplate.getWorkspaceComponent()).clear();
             enableGameButton();
         }
         if (gamestate.equals(GameState.ENDED)) {
             appTemplate.getGUI().updateWorkspaceToolbar(false);
             Workspace gameWorkspace = (Workspace) appTemplate.getWorkspaceComponent();
-            gameWorkspace.reinitialize();
+            gameWorkspace.clear();
         }
 
     }
 
+    /**
+     * Saves the game in the background; the player may carry on while the file is written, and is told once the save
+     * has completed or failed.
+     */
     @Override
     public void handleSaveRequest() throws IOException {
+        Path target = chooseSaveTarget();
+        if (target != null)
+            save(target);
+    }
+
+    /** @return The file the game was last saved to or loaded from, or else the file picked by the user, if any. */
+    private Path chooseSaveTarget() {
         PropertyManager propertyManager = PropertyManager.getManager();
         if (workFile == null) {
             FileChooser filechooser = new FileChooser();
@@ -439,20 +304,17 @@ public class HangmanController implements FileController {
             Path        targetPath  = appDirPath.resolve(APP_WORKDIR_PATH.getParameter());
             filechooser.setInitialDirectory(targetPath.toFile());
             filechooser.setTitle(propertyManager.getPropertyValue(SAVE_WORK_TITLE));
-            String description = propertyManager.getPropertyValue(WORK_FILE_EXT_DESC);
-            String extension   = propertyManager.getPropertyValue(WORK_FILE_EXT);
-            ExtensionFilter extFilter = new ExtensionFilter(String.format("%s (*.%s)", description, extension),
-                                                            String.format("*.%s", extension));
-            filechooser.getExtensionFilters().add(extFilter);
+            addExtensionFilters(filechooser);
             File selectedFile = filechooser.showSaveDialog(appTemplate.getGUI().getWindow());
-            if (selectedFile != null)
-                save(selectedFile.toPath());
-        } else
-            save(workFile);
+            return selectedFile == null ? null : selectedFile.toPath();
+        }
+        return workFile;
     }
 
     @Override
     public void handleLoadRequest() throws IOException {
+        if (offerRecovery())
+            return;
         boolean load = true;
 
         if (gamestate.equals(GameState.INITIALIZED_MODIFIED)) {
@@ -466,14 +328,16 @@ public class HangmanController implements FileController {
             Path targetPath = appDirPath.resolve(APP_WORKDIR_PATH.getParameter());
             filechooser.setInitialDirectory(targetPath.toFile());
             filechooser.setTitle(propertyManager.getPropertyValue(LOAD_WORK_TITLE));
-            String description = propertyManager.getPropertyValue(WORK_FILE_EXT_DESC);
-            String extension = propertyManager.getPropertyValue(WORK_FILE_EXT);
-            ExtensionFilter extFilter = new ExtensionFilter(String.format("%s (*.%s)", description, extension),
-                    String.format("*.%s", extension));
-            filechooser.getExtensionFilters().add(extFilter);
+            addExtensionFilters(filechooser);
             File selectedFile = filechooser.showOpenDialog(appTemplate.getGUI().getWindow());
-            if (selectedFile != null && selectedFile.exists())
-                load(selectedFile.toPath());
+            if (selectedFile != null && selectedFile.exists()) {
+                Path source = selectedFile.toPath();
+                if (GameDataFile.isArchive(source)) {
+                    chooseArchivedGame(source); // loads the game the user picks, once the archive has been listed
+                    return;
+                }
+                load(source, -1);
+            }
             if (selectedFile != null && gamedata != null) {
                 restoreGUI(); // restores the GUI to reflect the state in which the loaded game was last saved
             }
@@ -487,8 +351,14 @@ public class HangmanController implements FileController {
             boolean exit = true;
             if (gamestate.equals(GameState.INITIALIZED_MODIFIED))
                 exit = promptToSave();
-            if (exit)
+            if (exit) {
+                if (autosave != null)
+                    autosave.stop();
+                discardJournal(); // the game was saved, or the player chose not to; there is nothing left to recover
+                workFile = null;
+                GameDataFile.closeArchives(); // the saves still queued have to be on disk before the application exits
                 System.exit(0);
+            }
         } catch (IOException ioe) {
             AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
             PropertyManager           props  = PropertyManager.getManager();
@@ -496,6 +366,103 @@ public class HangmanController implements FileController {
         }
     }
 
+    /** Lets the user pick either the JSON save files or the compact binary ones; the extension selects the format. */
+    private static void addExtensionFilters(FileChooser filechooser) {
+        PropertyManager propertyManager   = PropertyManager.getManager();
+        String          description       = propertyManager.getPropertyValue(WORK_FILE_EXT_DESC);
+        String          extension         = propertyManager.getPropertyValue(WORK_FILE_EXT);
+        String          binaryDescription = propertyManager.getPropertyValue(BINARY_WORK_FILE_EXT_DESC);
+        String          binaryExtension   = GameDataFile.BINARY_EXTENSION;
+        String          archiveDescription = propertyManager.getPropertyValue(ARCHIVE_FILE_EXT_DESC);
+        String          archiveExtension   = GameDataFile.ARCHIVE_EXTENSION;
+        filechooser.getExtensionFilters().addAll(
+                new ExtensionFilter(String.format("%s (*.%s)", description, extension), String.format("*.%s", extension)),
+                new ExtensionFilter(String.format("%s (*.%s)", binaryDescription, binaryExtension),
+                                    String.format("*.%s", binaryExtension)),
+                new ExtensionFilter(String.format("%s (*.%s)", archiveDescription, archiveExtension),
+                                    String.format("*.%s", archiveExtension)));
+    }
+
+    /**
+     * Lets the user pick one of the games in an archive, the most recently saved first, and loads it. The archive is
+     * listed in the background, from the index fields of its slots, and the list shows only the entries in view, each
+     * described when it is shown, so even archives of hundreds of thousands of games open without stalling the GUI.
+     *
+     * @param archive The archive.
+     */
+    private void chooseArchivedGame(Path archive) {
+        GameDataFile file = (GameDataFile) appTemplate.getFileComponent();
+        file.listArchiveAsync(archive).whenComplete((slots, error) -> Platform.runLater(() -> {
+            PropertyManager props = PropertyManager.getManager();
+            try {
+                if (error != null)
+                    throw error.getCause() instanceof IOException ? (IOException) error.getCause() : new IOException(error);
+                if (slots.length == 0)
+                    throw new IOException("The archive " + archive + " holds no games.");
+                GameArchive       games = GameDataFile.getArchive(archive);
+                ListView<Integer> list  = new ListView<>(FXCollections.observableList(new AbstractList<Integer>() {
+                    @Override
+                    public Integer get(int index) {
+                        return slots[index];
+                    }
+
+                    @Override
+                    public int size() {
+                        return slots.length;
+                    }
+                }));
+                list.setCellFactory(view -> new ListCell<Integer>() {
+                    @Override
+                    protected void updateItem(Integer slot, boolean empty) {
+                        super.updateItem(slot, empty);
+                        setText(empty || slot == null ? null : describe(games, slot));
+                    }
+                });
+                list.getSelectionModel().selectFirst();
+
+                Dialog<Integer> dialog = new Dialog<>();
+                dialog.setTitle(props.getPropertyValue(LOAD_WORK_TITLE));
+                dialog.initOwner(appTemplate.getGUI().getWindow());
+                dialog.getDialogPane().setContent(list);
+                dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+                dialog.setResultConverter(button -> button == ButtonType.OK ? list.getSelectionModel().getSelectedItem() : null);
+                Optional<Integer> choice = dialog.showAndWait();
+                if (choice.isPresent()) {
+                    load(archive, choice.get());
+                    restoreGUI();
+                } else {
+                    releaseArchive(archive);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                releaseArchive(archive);
+                AppMessageDialogSingleton.getSingleton().show(props.getPropertyValue(LOAD_ERROR_TITLE),
+                                                              props.getPropertyValue(LOAD_ERROR_MESSAGE));
+            }
+        }));
+    }
+
+    /** @return How the game in the given slot of an archive is listed for the user to pick from. */
+    private static String describe(GameArchive games, int slot) {
+        PropertyManager    props  = PropertyManager.getManager();
+        GameArchive.Status status = games.getStatus(slot);
+        String statusText = props.getPropertyValue(status == GameArchive.Status.WON ? ARCHIVE_STATUS_WON
+                                                   : status == GameArchive.Status.LOST ? ARCHIVE_STATUS_LOST
+                                                   : ARCHIVE_STATUS_IN_PROGRESS);
+        return String.format(props.getPropertyValue(ARCHIVE_ENTRY_FORMAT), slot + 1, games.getTimestamp(slot),
+                             games.getWordLength(slot), statusText);
+    }
+
+    /** Closes an archive that was opened for the user, unless the game being played is saved in it. */
+    private void releaseArchive(Path archive) {
+        if (archive == null || !GameDataFile.isArchive(archive) || archive.equals(workFile))
+            return;
+        GameDataFile.closeArchiveAsync(archive).whenComplete((closed, error) -> {
+            if (error != null)
+                error.printStackTrace();
+        });
+    }
+
     private void ensureActivatedWorkspace() {
         appTemplate.getWorkspaceComponent().activateWorkspace(appTemplate.getGUI().getAppPane());
     }
@@ -507,26 +474,66 @@ public class HangmanController implements FileController {
         yesNoCancelDialog.show(propertyManager.getPropertyValue(SAVE_UNSAVED_WORK_TITLE),
                                propertyManager.getPropertyValue(SAVE_UNSAVED_WORK_MESSAGE));
 
-        if (yesNoCancelDialog.getSelection()!=null && yesNoCancelDialog.getSelection().equals(YesNoCancelDialogSingleton.YES))
-            handleSaveRequest();
+        if (yesNoCancelDialog.getSelection()!=null && yesNoCancelDialog.getSelection().equals(YesNoCancelDialogSingleton.YES)) {
+            // the game is about to be replaced or the application closed, so this save has to complete first
+            Path target = chooseSaveTarget();
+            if (target != null) {
+                try {
+                    writeGame(target).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof IOException)
+                        throw (IOException) e.getCause();
+                    throw e;
+                }
+                setWorkFile(target);
+                setGameState(GameState.INITIALIZED_UNMODIFIED);
+            }
+        } else if (YesNoCancelDialogSingleton.NO.equals(yesNoCancelDialog.getSelection())) {
+            discardJournal(); // the moves the player chose not to save must not come back on the next load
+        }
 
         return yesNoCancelDialog.getSelection()!=null && !yesNoCancelDialog.getSelection().equals(YesNoCancelDialogSingleton.CANCEL);
     }
 
     /**
-     * A helper method to save work. It saves the work, marks the current work file as saved, notifies the user, and
-     * updates the appropriate controls in the user interface
+     * A helper method to save work. The game is copied right away and written in the background; once the write has
+     * completed, the current work file is marked as saved (unless the player has moved since), the user is notified,
+     * and the appropriate controls in the user interface are updated, all back on the JavaFX application thread.
      *
      * @param target The file to which the work will be saved.
-     * @throws IOException
      */
-    private void save(Path target) throws IOException {
-        appTemplate.getFileComponent().saveData(appTemplate.getDataComponent(), target);
-        workFile = target;
-        setGameState(GameState.INITIALIZED_UNMODIFIED);
-        AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
-        PropertyManager           props  = PropertyManager.getManager();
-        dialog.show(props.getPropertyValue(SAVE_COMPLETED_TITLE), props.getPropertyValue(SAVE_COMPLETED_MESSAGE));
+    private void save(Path target) {
+        long movesAtSave = moves;
+        writeGame(target).whenComplete((saved, error) -> Platform.runLater(() -> {
+            AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
+            PropertyManager           props  = PropertyManager.getManager();
+            if (error != null) {
+                error.printStackTrace();
+                dialog.show(props.getPropertyValue(SAVE_ERROR_TITLE), props.getPropertyValue(SAVE_ERROR_MESSAGE));
+                return;
+            }
+            setWorkFile(target);
+            if (movesAtSave == moves && gamestate.equals(GameState.INITIALIZED_MODIFIED))
+                setGameState(GameState.INITIALIZED_UNMODIFIED);
+            dialog.show(props.getPropertyValue(SAVE_COMPLETED_TITLE), props.getPropertyValue(SAVE_COMPLETED_MESSAGE));
+        }));
+    }
+
+    /**
+     * Starts writing the game to the given file. A game saved in an archive is saved over its own slot, or in a new one.
+     * The journal is left alone either way: it only ever belongs to the autosave file, so the user's own files change
+     * only when the user saves them.
+     *
+     * @param target The file to which the game will be saved.
+     * @return Completes once the game is on disk.
+     */
+    private CompletableFuture<?> writeGame(Path target) {
+        GameDataFile file = (GameDataFile) appTemplate.getFileComponent();
+        if (GameDataFile.isArchive(target)) {
+            int slot = target.equals(workFile) ? archiveSlot : -1;
+            return file.saveToArchiveAsync(gamedata, target, slot).thenAccept(saved -> archiveSlot = saved);
+        }
+        return file.saveDataAsync(gamedata, target);
     }
 
     /**
@@ -534,24 +541,219 @@ public class HangmanController implements FileController {
      * reflect the correct state of the game.
      *
      * @param source The source data file from which the game is loaded.
+     * @param slot   The slot of the game, if the source is an archive.
      * @throws IOException
      */
-    private void load(Path source) throws IOException {
+    private void load(Path source, int slot) throws IOException {
+        // a game recovered from the autosave file is replayed from its journal, so every move must be in it
+        boolean recovered = autosaveFile() != null && source.toAbsolutePath().equals(autosaveFile());
+        if (recovered)
+            closeJournal();
+
         // load game data
-        appTemplate.getFileComponent().loadData(appTemplate.getDataComponent(), source);
+        GameDataFile file = (GameDataFile) appTemplate.getFileComponent();
+        if (GameDataFile.isArchive(source))
+            file.loadFromArchive(appTemplate.getDataComponent(), source, slot);
+        else
+            file.loadData(appTemplate.getDataComponent(), source);
 
-        // set the work file as the file from which the game was loaded
-        workFile = source;
+        // set the work file as the file from which the game was loaded; a recovered game has not been saved anywhere
+        setWorkFile(source);
+        archiveSlot = slot;
 
         // notify the user that load was successful
         AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
         PropertyManager           props  = PropertyManager.getManager();
         dialog.show(props.getPropertyValue(LOAD_COMPLETED_TITLE), props.getPropertyValue(LOAD_COMPLETED_MESSAGE));
 
-        setGameState(GameState.INITIALIZED_UNMODIFIED);
-        Workspace gameworkspace = (Workspace) appTemplate.getWorkspaceComponent();
+        setGameState(recovered ? GameState.INITIALIZED_MODIFIED : GameState.INITIALIZED_UNMODIFIED);
         ensureActivatedWorkspace();
-        gameworkspace.reinitialize();
         gamedata = (GameData) appTemplate.getDataComponent();
+        engine = new HangmanEngine(gamedata);
+
+        // journal the loaded game next to the autosave file, and write it there; a game recovered from the autosave file
+        // keeps the moves that were just replayed until they are in that file
+        openJournal(recovered);
+        compactJournal();
+        startAutosave();
+    }
+
+    /**
+     * Offers to resume the game that a previous run of the application left in the autosave file, i.e., one that was
+     * neither saved nor thrown away before the application closed. This is done once, before the autosave file is
+     * first written to.
+     *
+     * @return Whether the player resumed that game, or put off deciding; either way, no new game should be started.
+     */
+    public boolean offerRecovery() {
+        if (recoveryChecked)
+            return false;
+        Path snapshot = autosaveFile();
+        if (snapshot == null || !Files.exists(snapshot)) {
+            recoveryChecked = true;
+            return false;
+        }
+
+        PropertyManager            props  = PropertyManager.getManager();
+        YesNoCancelDialogSingleton dialog = YesNoCancelDialogSingleton.getSingleton();
+        dialog.show(props.getPropertyValue(RECOVER_GAME_TITLE), props.getPropertyValue(RECOVER_GAME_MESSAGE));
+        String selection = dialog.getSelection();
+        if (selection == null || selection.equals(YesNoCancelDialogSingleton.CANCEL))
+            return true; // asked again on the next start or load
+        recoveryChecked = true;
+        if (selection.equals(YesNoCancelDialogSingleton.NO)) {
+            discardJournal();
+            return false;
+        }
+        try {
+            load(snapshot, -1);
+            restoreGUI();
+        } catch (IOException e) {
+            e.printStackTrace();
+            discardJournal();
+            AppMessageDialogSingleton.getSingleton().show(props.getPropertyValue(LOAD_ERROR_TITLE),
+                                                          props.getPropertyValue(LOAD_ERROR_MESSAGE));
+        }
+        return true;
+    }
+
+    /**
+     * Makes the given file the one the game is saved to, and closes the archive the game was saved in before, if any.
+     * An autosave file never becomes the work file: it is overwritten by every new game, so the player is asked where
+     * to save a game recovered from it.
+     */
+    private void setWorkFile(Path file) {
+        Path previous = workFile;
+        workFile = file == null || isAutosaveFile(file) ? null : file;
+        releaseArchive(previous);
+    }
+
+    /** @return Whether the given file is the autosave file of this, or of any other, instance of the application. */
+    private static boolean isAutosaveFile(Path file) {
+        Path absolute = file.toAbsolutePath();
+        return absolute.getParent() != null && absolute.getParent().equals(workDirectory())
+               && AUTOSAVE_PATTERN.matcher(absolute.getFileName().toString()).matches();
+    }
+
+    private static Path workDirectory() {
+        PropertyManager propertyManager = PropertyManager.getManager();
+        Path            appDirPath      = Paths.get(propertyManager.getPropertyValue(APP_TITLE)).toAbsolutePath();
+        return appDirPath.resolve(APP_WORKDIR_PATH.getParameter());
+    }
+
+    /**
+     * Returns the file that games are saved to until the player saves them somewhere else. Every instance of the
+     * application running at once claims a file of its own, autosave.hgs, autosave-2.hgs and so on, by locking it for
+     * as long as it runs; the first one that is free is taken, which is the one a crashed instance left behind.
+     *
+     * @return The autosave file of this instance, or null if none could be claimed, in which case nothing is autosaved.
+     */
+    private Path autosaveFile() {
+        if (autosaveClaimed)
+            return autosaveFile;
+        autosaveClaimed = true;
+        Path directory = workDirectory();
+        try {
+            Files.createDirectories(directory);
+            for (int n = 1; n <= MAX_AUTOSAVE_FILES && autosaveFile == null; n++) {
+                String      name      = n == 1 ? AUTOSAVE_NAME : AUTOSAVE_NAME + "-" + n;
+                Path        candidate = directory.resolve(name + "." + GameDataFile.BINARY_EXTENSION);
+                FileChannel channel   = FileChannel.open(directory.resolve(name + ".lock"), StandardOpenOption.CREATE,
+                                                         StandardOpenOption.WRITE);
+                try {
+                    autosaveLock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    autosaveLock = null;
+                }
+                if (autosaveLock == null)
+                    channel.close(); // in use by another instance
+                else
+                    autosaveFile = candidate;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return autosaveFile;
+    }
+
+    /**
+     * Starts journaling the moves of the current game next to the autosave file. The journal never goes next to a file
+     * of the user's: that file would otherwise be changed by moves the user never saved. A game whose journal cannot be
+     * opened can still be played and saved; its moves are just not journaled.
+     *
+     * @param resume Whether the current game was recovered from the autosave file, so that the moves in its journal
+     *               are those of this very game; otherwise, the journal is started over.
+     */
+    private void openJournal(boolean resume) {
+        closeJournal();
+        Path snapshot = autosaveFile();
+        if (snapshot == null)
+            return;
+        try {
+            Files.createDirectories(snapshot.getParent());
+            if (!resume)
+                Files.deleteIfExists(MoveJournal.journalOf(snapshot));
+            journal = MoveJournal.open(snapshot, gamedata);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Folds the journal back into the autosave file in the background, e.g., once a game has been started or loaded,
+     * and on every autosave.
+     *
+     * @return Completes once the save file is on disk.
+     */
+    private CompletableFuture<?> compactJournal() {
+        if (journal == null)
+            return CompletableFuture.completedFuture(null);
+        return journal.compactAsync((GameDataFile) appTemplate.getFileComponent(), gamedata).whenComplete((saved, error) -> {
+            if (error != null)
+                error.printStackTrace();
+        });
+    }
+
+    /**
+     * Starts autosaving, unless it is already running or is turned off by setting AUTOSAVE_INTERVAL_MS to zero. Moves
+     * are journaled as they are made, so an autosave only has to fold the journal into the save file, once for every
+     * burst of moves.
+     */
+    private void startAutosave() {
+        if (autosave == null) {
+            int interval = PropertyManager.getManager().getInt(AUTOSAVE_INTERVAL_MS);
+            if (interval <= 0)
+                return;
+            autosave = new AutosaveService(this::compactJournal, interval);
+            autosave.start();
+        }
+        autosave.markSaved(); // the game was just written out with compactJournal()
+    }
+
+    private void closeJournal() {
+        if (journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        journal = null;
+    }
+
+    /** Throws away the moves that were not saved: the journal, and the autosave file its moves were folded into. */
+    private void discardJournal() {
+        Path snapshot = autosaveFile();
+        try {
+            if (journal != null)
+                journal.discard();
+            if (snapshot != null) {
+                Files.deleteIfExists(MoveJournal.journalOf(snapshot)); // left behind by a previous run, if not open
+                Files.deleteIfExists(snapshot);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        journal = null;
     }
 }
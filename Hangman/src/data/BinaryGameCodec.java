@@ -0,0 +1,140 @@
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The compact save format, an alternative to the human-readable JSON saves. A game takes {@code 20 + n} bytes, where
+ * {@code n} is the length of the target word, laid out as
+ * <ol>
+ * <li>a magic number and the format version,</li>
+ * <li>the length of the target word and its letters,</li>
+ * <li>the good and the bad guesses, as 26-bit masks,</li>
+ * <li>a flags byte (bit 0 is set iff the hint is still available) and the number of remaining guesses, and</li>
+ * <li>the CRC-32 checksum of everything before it.</li>
+ * </ol>
+ * All values are big-endian. Every thread encodes into and decodes from a buffer and a checksum of its own, so apart
+ * from the target word itself, neither saving nor loading a game allocates anything.
+ *
+ * @author Eifu Tomita
+ */
+public final class BinaryGameCodec {
+
+    static final int MAGIC   = 0x4847534d; // "HGSM"
+    static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH  = 6;  // magic, version, word length
+    private static final int TRAILER_LENGTH = 14; // guess masks, flags, remaining guesses, checksum
+    private static final int MAX_LENGTH     = HEADER_LENGTH + GameData.MAX_WORD_LENGTH + TRAILER_LENGTH;
+
+    private static final int HINT_RESERVED = 1; // flag set iff the hint has not been taken yet
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS   = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(MAX_LENGTH));
+    private static final ThreadLocal<CRC32>      CHECKSUMS = ThreadLocal.withInitial(CRC32::new);
+    private static final ThreadLocal<char[]>     LETTERS   = ThreadLocal.withInitial(() -> new char[GameData.MAX_WORD_LENGTH]);
+
+    private BinaryGameCodec() {}
+
+    /**
+     * Encodes a game into this thread's buffer.
+     *
+     * @param gamedata The game to encode; it must have a target word.
+     * @return The encoded game, between the position and the limit of the buffer. The buffer is reused by the next
+     * call on the same thread.
+     */
+    public static ByteBuffer encode(GameData gamedata) {
+        String     word   = gamedata.getTargetWord();
+        ByteBuffer buffer = BUFFERS.get();
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) word.length());
+        for (int i = 0; i < word.length(); i++)
+            buffer.put((byte) word.charAt(i));
+        buffer.putInt(gamedata.getGoodGuessMask());
+        buffer.putInt(gamedata.getBadGuessMask());
+        buffer.put((byte) (gamedata.getHintReserved() ? HINT_RESERVED : 0));
+        buffer.put((byte) gamedata.getRemainingGuesses());
+        buffer.putInt((int) checksum(buffer, 0, buffer.position()));
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes a game into the given game data.
+     *
+     * @param buffer   The encoded game, between the position and the limit of the buffer.
+     * @param gamedata Where to decode the game.
+     * @throws IOException If the buffer does not hold a well-formed, intact game.
+     */
+    public static void decode(ByteBuffer buffer, GameData gamedata) throws IOException {
+        int start  = buffer.position();
+        int length = buffer.remaining();
+        if (length < HEADER_LENGTH + TRAILER_LENGTH || buffer.getInt(start) != MAGIC)
+            throw new IOException("Not a Hangman save file.");
+        if (buffer.get(start + 4) != VERSION)
+            throw new IOException("Unsupported save file version " + buffer.get(start + 4) + ".");
+        int wordLength = buffer.get(start + 5);
+        if (wordLength < 0 || wordLength > GameData.MAX_WORD_LENGTH ||
+            length != HEADER_LENGTH + wordLength + TRAILER_LENGTH)
+            throw new IOException("Malformed save file.");
+        int end = start + length - Integer.BYTES;
+        if ((int) checksum(buffer, start, end) != buffer.getInt(end))
+            throw new IOException("Corrupted save file.");
+
+        char[] letters = LETTERS.get();
+        buffer.position(start + HEADER_LENGTH);
+        for (int i = 0; i < wordLength; i++) {
+            byte b = buffer.get();
+            if (b < 'a' || b > 'z')
+                throw new IOException("Malformed save file.");
+            letters[i] = (char) b;
+        }
+        gamedata.setTargetWord(new String(letters, 0, wordLength));
+        gamedata.setGoodGuessMask(buffer.getInt());
+        gamedata.setBadGuessMask(buffer.getInt());
+        gamedata.setHintReserved((buffer.get() & HINT_RESERVED) != 0);
+        gamedata.setRemainingGuesses(buffer.get());
+        buffer.position(start + length);
+    }
+
+    /**
+     * Reads a game saved in this format.
+     *
+     * @param gamedata Where to load the game.
+     * @param from     The save file.
+     * @throws IOException If the file could not be read or does not hold a well-formed, intact game.
+     */
+    public static void read(GameData gamedata, Path from) throws IOException {
+        ByteBuffer buffer = BUFFERS.get();
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(from, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_LENGTH)
+                throw new IOException("Malformed save file.");
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read >= 0 && buffer.hasRemaining());
+        }
+        buffer.flip();
+        decode(buffer, gamedata);
+    }
+
+    /** Computes the checksum of the bytes of the buffer in {@code [start, end)}, leaving the buffer as it was. */
+    private static long checksum(ByteBuffer buffer, int start, int end) {
+        CRC32 crc      = CHECKSUMS.get();
+        int   position = buffer.position();
+        int   limit    = buffer.limit();
+        buffer.limit(end);
+        buffer.position(start);
+        crc.reset();
+        crc.update(buffer);
+        buffer.limit(limit);
+        buffer.position(position);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,288 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A single file holding any number of saved games, for machines shared by many players. The file is memory-mapped and
+ * laid out as a header followed by fixed-size slots, one per game, so that
+ * <ul>
+ * <li>a game is loaded from its slot number in constant time, without reading any other game,</li>
+ * <li>saving a game writes its slot in place, or appends a new slot, without rewriting the rest of the file, and</li>
+ * <li>the games can be listed (by slot, time of save, word length and status) straight from the mapping, without
+ * opening, reading or decoding anything else.</li>
+ * </ul>
+ * The header holds a magic number, the format version, the slot length and the number of slots in use. Each slot of
+ * {@value #SLOT_LENGTH} bytes holds the time of the save, the status of the game, the length of the target word, the
+ * hint flag, the number of remaining guesses, the two guess masks, the target word and the CRC-32 checksum of all of
+ * these. All values are big-endian. When the mapping is full, the file is doubled in size and mapped again.
+ * <p>
+ * Several instances of the application may share an archive. Saving takes an exclusive lock on the file, and loading
+ * a shared one, and the slots in use are counted again from the header under that lock, so that games appended by
+ * another instance are seen and never overwritten.
+ *
+ * @author Eifu Tomita
+ */
+public final class GameArchive implements Closeable {
+
+    public enum Status {
+        IN_PROGRESS,
+        WON,
+        LOST
+    }
+
+    static final int MAGIC   = 0x48474152; // "HGAR"
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 64;
+    static final int SLOT_LENGTH   = 64;
+
+    private static final int COUNT_AT = 12; // where the number of slots in use is kept in the header
+
+    // the layout of a slot
+    private static final int TIMESTAMP_AT = 0;
+    private static final int STATUS_AT    = 8;
+    private static final int LENGTH_AT    = 9;
+    private static final int FLAGS_AT     = 10;
+    private static final int REMAINING_AT = 11;
+    private static final int GOOD_AT      = 12;
+    private static final int BAD_AT       = 16;
+    private static final int WORD_AT      = 20;
+    private static final int CHECKSUM_AT  = WORD_AT + GameData.MAX_WORD_LENGTH;
+
+    private static final Status[] STATUSES = Status.values();
+
+    private static final int HINT_RESERVED    = 1; // flag set iff the hint has not been taken yet
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY     = (Integer.MAX_VALUE - HEADER_LENGTH) / SLOT_LENGTH;
+
+    private final FileChannel channel;
+    private final CRC32       crc     = new CRC32();
+    private final char[]      letters = new char[GameData.MAX_WORD_LENGTH];
+    private MappedByteBuffer  map;      // the whole file
+    private int               capacity; // the number of slots the mapping has room for
+    private int               size;     // the number of slots in use
+
+    private GameArchive(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens an archive, creating an empty one if the file does not exist yet.
+     *
+     * @param path The archive file.
+     * @return The open archive.
+     * @throws IOException If the file could not be opened, or is not an archive.
+     */
+    public static GameArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            GameArchive archive = new GameArchive(channel);
+            FileLock    lock    = channel.lock(); // an archive created by two instances at once is only set up once
+            try {
+                archive.init(path);
+            } finally {
+                lock.release();
+            }
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Writes the header of a new archive, or checks the header of an existing one, once the file is locked. */
+    private void init(Path path) throws IOException {
+        long length = channel.size();
+        if (length == 0) {
+            map(INITIAL_CAPACITY);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(8, SLOT_LENGTH);
+            map.putInt(COUNT_AT, 0);
+            map.force();
+        } else {
+            if (length < HEADER_LENGTH || (length - HEADER_LENGTH) % SLOT_LENGTH != 0)
+                throw new IOException("Not a Hangman archive: " + path + ".");
+            map((int) Math.min((length - HEADER_LENGTH) / SLOT_LENGTH, MAX_CAPACITY));
+            if (map.getInt(0) != MAGIC || map.getInt(8) != SLOT_LENGTH)
+                throw new IOException("Not a Hangman archive: " + path + ".");
+            if (map.getInt(4) != VERSION)
+                throw new IOException("Unsupported archive version " + map.getInt(4) + ".");
+        }
+        size = map.getInt(COUNT_AT);
+        if (size < 0 || size > capacity)
+            throw new IOException("Corrupted archive: " + path + ".");
+    }
+
+    /**
+     * @return The number of games in the archive, including those appended by other instances of the application;
+     * their slots are {@code 0} to {@code size() - 1}.
+     * @throws IOException If the archive was grown by another instance and could not be mapped again.
+     */
+    public synchronized int size() throws IOException {
+        refresh();
+        return size;
+    }
+
+    /** @return When the game in the given slot was saved, in milliseconds since the epoch. */
+    public synchronized long getTimestamp(int slot) {
+        return map.getLong(at(slot) + TIMESTAMP_AT);
+    }
+
+    /** @return Whether the game in the given slot was still being played, won or lost when it was saved. */
+    public synchronized Status getStatus(int slot) {
+        int status = map.get(at(slot) + STATUS_AT);
+        return status >= 0 && status < STATUSES.length ? STATUSES[status] : Status.IN_PROGRESS;
+    }
+
+    /** @return The number of letters in the target word of the game in the given slot. */
+    public synchronized int getWordLength(int slot) {
+        return map.get(at(slot) + LENGTH_AT);
+    }
+
+    /**
+     * Saves a game in a new slot at the end of the archive.
+     *
+     * @param gamedata The game to save; it must have a target word.
+     * @return The slot the game was saved in.
+     * @throws IOException If the archive could not be grown.
+     */
+    public synchronized int append(GameData gamedata) throws IOException {
+        FileLock lock = channel.lock();
+        try {
+            refresh();
+            if (size == capacity) {
+                if (capacity == MAX_CAPACITY)
+                    throw new IOException("The archive is full.");
+                map((int) Math.min(2L * capacity, MAX_CAPACITY));
+            }
+            int slot = size;
+            write(HEADER_LENGTH + slot * SLOT_LENGTH, gamedata);
+            map.putInt(COUNT_AT, ++size); // only once the slot is complete
+            map.force();
+            return slot;
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Saves a game over the one in the given slot.
+     *
+     * @param slot     A slot in use.
+     * @param gamedata The game to save; it must have a target word.
+     * @throws IOException If the archive could not be locked.
+     */
+    public synchronized void put(int slot, GameData gamedata) throws IOException {
+        FileLock lock = channel.lock();
+        try {
+            refresh();
+            write(at(slot), gamedata);
+            map.force();
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Loads the game in the given slot.
+     *
+     * @param slot     A slot in use.
+     * @param gamedata Where to load the game.
+     * @throws IOException If the archive could not be locked, or the slot is damaged.
+     */
+    public synchronized void load(int slot, GameData gamedata) throws IOException {
+        FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+        try {
+            refresh();
+            read(slot, gamedata);
+        } finally {
+            lock.release();
+        }
+    }
+
+    /** Reads the game in the given slot, once the archive is locked. */
+    private void read(int slot, GameData gamedata) throws IOException {
+        int at     = at(slot);
+        int length = map.get(at + LENGTH_AT);
+        if (length < 0 || length > GameData.MAX_WORD_LENGTH || (int) checksum(at) != map.getInt(at + CHECKSUM_AT))
+            throw new IOException("The game in slot " + slot + " is damaged.");
+        for (int i = 0; i < length; i++) {
+            byte b = map.get(at + WORD_AT + i);
+            if (b < 'a' || b > 'z')
+                throw new IOException("The game in slot " + slot + " is damaged.");
+            letters[i] = (char) b;
+        }
+        gamedata.setTargetWord(new String(letters, 0, length))
+                .setGoodGuessMask(map.getInt(at + GOOD_AT))
+                .setBadGuessMask(map.getInt(at + BAD_AT))
+                .setHintReserved((map.get(at + FLAGS_AT) & HINT_RESERVED) != 0)
+                .setRemainingGuesses(map.get(at + REMAINING_AT));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    /** Writes a game into the slot that starts at the given index. */
+    private void write(int at, GameData gamedata) {
+        String word   = gamedata.getTargetWord();
+        Status status = gamedata.isWon() ? Status.WON
+                                         : gamedata.getRemainingGuesses() <= 0 ? Status.LOST : Status.IN_PROGRESS;
+        map.putLong(at + TIMESTAMP_AT, System.currentTimeMillis());
+        map.put(at + STATUS_AT, (byte) status.ordinal());
+        map.put(at + LENGTH_AT, (byte) word.length());
+        map.put(at + FLAGS_AT, (byte) (gamedata.getHintReserved() ? HINT_RESERVED : 0));
+        map.put(at + REMAINING_AT, (byte) gamedata.getRemainingGuesses());
+        map.putInt(at + GOOD_AT, gamedata.getGoodGuessMask());
+        map.putInt(at + BAD_AT, gamedata.getBadGuessMask());
+        for (int i = 0; i < GameData.MAX_WORD_LENGTH; i++)
+            map.put(at + WORD_AT + i, i < word.length() ? (byte) word.charAt(i) : 0);
+        map.putInt(at + CHECKSUM_AT, (int) checksum(at));
+    }
+
+    /** Computes the checksum of everything in the slot that starts at the given index, up to the checksum itself. */
+    private long checksum(int at) {
+        crc.reset();
+        for (int i = 0; i < CHECKSUM_AT; i++)
+            crc.update(map.get(at + i));
+        return crc.getValue();
+    }
+
+    /**
+     * Catches up with the games appended by other instances of the application since the last call: the count of slots
+     * in use is read again from the header, and the file is mapped again if it has grown beyond the mapping.
+     */
+    private void refresh() throws IOException {
+        long length = channel.size();
+        if (length > HEADER_LENGTH + (long) capacity * SLOT_LENGTH)
+            map((int) Math.min((length - HEADER_LENGTH) / SLOT_LENGTH, MAX_CAPACITY));
+        int count = map.getInt(COUNT_AT);
+        if (count < 0 || count > capacity)
+            throw new IOException("Corrupted archive.");
+        size = count;
+    }
+
+    /** @return Where the given slot starts, provided that it is in use. */
+    private int at(int slot) {
+        if (slot < 0 || slot >= size)
+            throw new IndexOutOfBoundsException("No game in slot " + slot + ".");
+        return HEADER_LENGTH + slot * SLOT_LENGTH;
+    }
+
+    /** Maps the file again with room for the given number of slots, growing the file if needed. */
+    private void map(int slots) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + (long) slots * SLOT_LENGTH);
+        capacity = slots;
+    }
+}
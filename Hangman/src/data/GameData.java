@@ -4,15 +4,11 @@ import apptemplate.AppTemplate;
 import components.AppDataComponent;
 import controller.GameError;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.HashSet;
-import java.util.Random;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Stream;
 
 /**
  * @author Ritwik Banerjee
@@ -20,16 +16,28 @@ import java.util.stream.Stream;
  */
 public class GameData implements AppDataComponent {
 
-    public static final  int TOTAL_NUMBER_OF_GUESSES_ALLOWED = 10;
-    private static final int TOTAL_NUMBER_OF_STORED_WORDS    = 330622;
+    public static final int TOTAL_NUMBER_OF_GUESSES_ALLOWED = 10;
+    public static final int HINT_DIFFICULTY_THRESHOLD       = 7; // words with more distinct letters than this get a hint
+
+    public static final int MAX_WORD_LENGTH                 = Integer.SIZE; // one bit per position in a reveal mask
+
+    private static final int ALL_LETTERS = (1 << 26) - 1; // the guess mask with every letter from 'a' to 'z' set
 
     private String         targetWord;
-    private boolean         hint_reserved;
-    private Set<Character> goodGuesses;
-    private Set<Character> badGuesses;
+    private boolean        hint_reserved;
+    private int            goodGuesses;      // bit (c - 'a') is set iff c was guessed and is in the target word
+    private int            badGuesses;       // bit (c - 'a') is set iff c was guessed and is not in the target word
     private int            remainingGuesses;
     public  AppTemplate    appTemplate;
 
+    private final int[] letterPositions = new int[26]; // bit i of letterPositions[c - 'a'] is set iff targetWord[i] == c
+    private int         targetLetters;                 // bit (c - 'a') is set iff c is in the target word
+    private int         wordPositions;                 // bit i is set for every position i of the target word
+    private int         revealedPositions;             // bit i is set iff the letter at position i has been guessed
+
+    private final Set<Character> goodGuessesView = new GuessSet(true);
+    private final Set<Character> badGuessesView  = new GuessSet(false);
+
     public GameData(AppTemplate appTemplate) {
         this(appTemplate, false);
     }
@@ -37,43 +45,84 @@ public class GameData implements AppDataComponent {
     public GameData(AppTemplate appTemplate, boolean initiateGame) {
         if (initiateGame) {
             this.appTemplate = appTemplate;
-            this.targetWord = setTargetWord();
-            this.hint_reserved = true;
-            this.goodGuesses = new HashSet<>();
-            this.badGuesses = new HashSet<>();
-            this.remainingGuesses = TOTAL_NUMBER_OF_GUESSES_ALLOWED;
+            init();
         } else {
             this.appTemplate = appTemplate;
         }
     }
 
     public void init() {
-        this.targetWord = setTargetWord();
+        init(setTargetWord());
+    }
+
+    /**
+     * Starts a new game with a word that has exactly the given number of distinct letters.
+     *
+     * @param difficulty The number of distinct letters in the target word.
+     */
+    public void initWithDifficulty(int difficulty) {
+        WordCorpus corpus = WordCorpus.getCorpus();
+        int        index  = corpus.getBuckets().randomWithDifficulty(difficulty);
+        if (index < 0)
+            throw new GameError("There is no word with " + difficulty + " distinct letters.");
+        init(corpus.getWord(index));
+    }
+
+    /**
+     * Starts a new game with a word whose length lies in {@code [minLength, maxLength]}.
+     *
+     * @param minLength The smallest accepted word length.
+     * @param maxLength The largest accepted word length.
+     */
+    public void initWithLength(int minLength, int maxLength) {
+        WordCorpus corpus = WordCorpus.getCorpus();
+        int        index  = corpus.getBuckets().randomWithLength(minLength, maxLength);
+        if (index < 0)
+            throw new GameError("There is no word between " + minLength + " and " + maxLength + " letters long.");
+        init(corpus.getWord(index));
+    }
+
+    /**
+     * Starts a new game with the given target word.
+     *
+     * @param targetWord The word to guess.
+     */
+    public void init(String targetWord) {
         this.hint_reserved = true;
-        this.goodGuesses = new HashSet<>();
-        this.badGuesses = new HashSet<>();
+        this.goodGuesses = 0;
+        this.badGuesses = 0;
         this.remainingGuesses = TOTAL_NUMBER_OF_GUESSES_ALLOWED;
+        setTargetWord(targetWord);
+    }
+
+    /**
+     * Copies the state of this game into game data that is not tied to the application, so that it can be handed to
+     * another thread (e.g., to be saved) while the player carries on with this one.
+     *
+     * @return A detached copy of this game.
+     */
+    public GameData copy() {
+        GameData copy = new GameData(null);
+        copy.hint_reserved = hint_reserved;
+        copy.badGuesses = badGuesses;
+        copy.remainingGuesses = remainingGuesses;
+        copy.goodGuesses = goodGuesses;
+        copy.setTargetWord(targetWord);
+        return copy;
     }
 
     @Override
     public void reset() {
-        this.targetWord = null;
-        this.goodGuesses = new HashSet<>();
-        this.badGuesses = new HashSet<>();
+        this.goodGuesses = 0;
+        this.badGuesses = 0;
         this.remainingGuesses = TOTAL_NUMBER_OF_GUESSES_ALLOWED;
-        appTemplate.getWorkspaceComponent().reloadWorkspace();
+        setTargetWord(null);
+        if (appTemplate != null) // game data used headless, e.g. by the engine, has no workspace
+            appTemplate.getWorkspaceComponent().reloadWorkspace();
     }
 
     public boolean getDifficulty(){
-        Set<Character> diff = new HashSet<>();
-        if (targetWord == null){
-            return false;
-        }
-        char[] c_array = targetWord.toCharArray();
-        for (int i = 0; i < c_array.length;i++){
-            diff.add(c_array[i]);
-        }
-        return diff.size() > 7;
+        return Integer.bitCount(targetLetters) > HINT_DIFFICULTY_THRESHOLD;
     }
 
     public String getTargetWord() {
@@ -81,45 +130,33 @@ public class GameData implements AppDataComponent {
     }
 
     private String setTargetWord() {
-        URL wordsResource = getClass().getClassLoader().getResource("words/words.txt");
-        assert wordsResource != null;
-
-        int toSkip = new Random().nextInt(TOTAL_NUMBER_OF_STORED_WORDS);
-
-        String s ="";
-        char[] c_array;
-        boolean still_not_find = true;
-        try {
-            Stream<String> lines = Files.lines(Paths.get(wordsResource.toURI()));
-
-            s = lines.skip(toSkip).findFirst().get();
-
-            while (still_not_find){
-                c_array = s.toCharArray();
-                still_not_find = false;
-                for (int i = 0; i < c_array.length;i++){
-                    if (!Character.isLetter(c_array[i])) {
-                        still_not_find = true;
-                        lines.close();
-                        lines = Files.lines(Paths.get(wordsResource.toURI()));
-                        s = lines.skip((toSkip+1)/TOTAL_NUMBER_OF_STORED_WORDS).findFirst().get();
-                        break;
-                    }
-                }
-            }
-
-            return s;
-
-        } catch (IOException | URISyntaxException e) {
-            e.printStackTrace();
-            System.exit(1);
-        }
-
-        throw new GameError("Unable to load initial target word.");
+        return WordCorpus.getCorpus().randomWord();
     }
 
+    /**
+     * Sets the target word and precomputes, for every letter, the mask of the positions at which it occurs in the word.
+     *
+     * @param targetWord The new target word, of at most {@link #MAX_WORD_LENGTH} letters, or {@code null}.
+     * @return This game data.
+     */
     public GameData setTargetWord(String targetWord) {
+        if (targetWord != null && targetWord.length() > MAX_WORD_LENGTH)
+            throw new GameError("Target words may not be longer than " + MAX_WORD_LENGTH + " letters.");
         this.targetWord = targetWord;
+        Arrays.fill(letterPositions, 0);
+        targetLetters = 0;
+        wordPositions = 0;
+        if (targetWord != null) {
+            for (int i = 0; i < targetWord.length(); i++) {
+                int letter = bit(targetWord.charAt(i));
+                if (letter != 0) {
+                    letterPositions[Integer.numberOfTrailingZeros(letter)] |= 1 << i;
+                    targetLetters |= letter;
+                }
+                wordPositions |= 1 << i;
+            }
+        }
+        updateRevealedPositions();
         return this;
     }
 
@@ -130,21 +167,51 @@ public class GameData implements AppDataComponent {
         return this;
     }
 
+    /**
+     * Returns a live, read-through view of the letters that were guessed and are in the target word. The guesses are
+     * stored as a bitmask, so prefer {@link #isGuessed(char)} and {@link #getGoodGuessMask()} on hot paths.
+     */
     public Set<Character> getGoodGuesses() {
-        return goodGuesses;
+        return goodGuessesView;
     }
 
     public GameData setGoodGuesses(Set<Character> goodGuesses) {
-        this.goodGuesses = goodGuesses;
+        this.goodGuesses = toMask(goodGuesses);
+        updateRevealedPositions();
         return this;
     }
 
+    /**
+     * Returns a live, read-through view of the letters that were guessed and are not in the target word. The guesses
+     * are stored as a bitmask, so prefer {@link #isGuessed(char)} and {@link #getBadGuessMask()} on hot paths.
+     */
     public Set<Character> getBadGuesses() {
-        return badGuesses;
+        return badGuessesView;
     }
 
     public GameData setBadGuesses(Set<Character> badGuesses) {
-        this.badGuesses = badGuesses;
+        this.badGuesses = toMask(badGuesses);
+        return this;
+    }
+
+    /** @return The good guesses as a 26-bit mask, with bit 0 standing for 'a'. */
+    public int getGoodGuessMask() {
+        return goodGuesses;
+    }
+
+    public GameData setGoodGuessMask(int goodGuesses) {
+        this.goodGuesses = goodGuesses & ALL_LETTERS;
+        updateRevealedPositions();
+        return this;
+    }
+
+    /** @return The bad guesses as a 26-bit mask, with bit 0 standing for 'a'. */
+    public int getBadGuessMask() {
+        return badGuesses;
+    }
+
+    public GameData setBadGuessMask(int badGuesses) {
+        this.badGuesses = badGuesses & ALL_LETTERS;
         return this;
     }
 
@@ -158,15 +225,160 @@ public class GameData implements AppDataComponent {
     }
 
     public void addGoodGuess(char c) {
-        goodGuesses.add(c);
+        int letter = bit(c);
+        goodGuesses |= letter;
+        revealedPositions |= positionsOf(letter);
     }
 
     public void addBadGuess(char c) {
-        if (!badGuesses.contains(c)) {
-            badGuesses.add(c);
+        int letter = bit(c);
+        if (letter != 0 && (badGuesses & letter) == 0) {
+            badGuesses |= letter;
             remainingGuesses--;
         }
     }
 
+    /**
+     * @param c A lowercase letter.
+     * @return Whether the letter was already guessed, whether or not it is in the target word.
+     */
+    public boolean isGuessed(char c) {
+        return ((goodGuesses | badGuesses) & bit(c)) != 0;
+    }
 
+    /**
+     * Records a guess, as a good guess if the letter is in the target word and as a bad one (costing a remaining guess
+     * the first time) otherwise. Characters other than lowercase letters are ignored.
+     *
+     * @param c The guessed letter.
+     * @return Whether the letter is in the target word.
+     */
+    public boolean addGuess(char c) {
+        int letter = bit(c);
+        if (letter == 0)
+            return false;
+        if ((targetLetters & letter) != 0) {
+            goodGuesses |= letter;
+            revealedPositions |= positionsOf(letter);
+            return true;
+        }
+        if ((badGuesses & letter) == 0) {
+            badGuesses |= letter;
+            remainingGuesses--;
+        }
+        return false;
+    }
+
+    /** @return The number of letters of the target word, counted with repetition, that have been revealed so far. */
+    public int revealedCount() {
+        return Integer.bitCount(revealedPositions);
+    }
+
+    /**
+     * @param c A lowercase letter.
+     * @return The mask of the positions at which the letter occurs in the target word, with bit 0 standing for the
+     * first letter.
+     */
+    public int getLetterPositions(char c) {
+        return positionsOf(bit(c));
+    }
+
+    /** @return The mask of the positions of the target word whose letter has been revealed. */
+    public int getRevealedPositions() {
+        return revealedPositions;
+    }
+
+    /** @return The 26-bit mask of the distinct letters in the target word. */
+    public int getTargetLetters() {
+        return targetLetters;
+    }
+
+    /** @return Whether every letter of the target word has been revealed. */
+    public boolean isWon() {
+        return targetWord != null && revealedPositions == wordPositions;
+    }
+
+    /**
+     * @return The 26-bit mask of the letters that are in the target word but have not been revealed yet.
+     */
+    public int getHiddenLetters() {
+        return targetLetters & ~goodGuesses;
+    }
+
+    private int positionsOf(int letter) {
+        return letter == 0 ? 0 : letterPositions[Integer.numberOfTrailingZeros(letter)];
+    }
+
+    private void updateRevealedPositions() {
+        revealedPositions = 0;
+        for (int letters = goodGuesses & targetLetters; letters != 0; letters &= letters - 1)
+            revealedPositions |= letterPositions[Integer.numberOfTrailingZeros(letters)];
+    }
+
+    private static int bit(char c) {
+        return c >= 'a' && c <= 'z' ? 1 << (c - 'a') : 0;
+    }
+
+    private static int toMask(Set<Character> letters) {
+        int mask = 0;
+        for (Character c : letters)
+            mask |= bit(c);
+        return mask;
+    }
+
+    /** A {@code Set<Character>} view over one of the guess masks, kept for callers that work with collections. */
+    private class GuessSet extends AbstractSet<Character> {
+
+        private final boolean good;
+
+        GuessSet(boolean good) {
+            this.good = good;
+        }
+
+        private int mask() {
+            return good ? goodGuesses : badGuesses;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Character && (mask() & bit((Character) o)) != 0;
+        }
+
+        @Override
+        public boolean add(Character c) {
+            if (contains(c) || bit(c) == 0)
+                return false;
+            if (good)
+                addGoodGuess(c);
+            else
+                badGuesses |= bit(c);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(mask());
+        }
+
+        @Override
+        public Iterator<Character> iterator() {
+            return new Iterator<Character>() {
+                int remaining = mask();
+
+                @Override
+                public boolean hasNext() {
+                    return remaining != 0;
+                }
+
+                @Override
+                public Character next() {
+                    if (remaining == 0)
+                        throw new NoSuchElementException();
+                    int letter = Integer.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    return (char) ('a' + letter);
+                }
+            };
+        }
+    }
 }
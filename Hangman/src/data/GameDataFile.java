@@ -1,104 +1,308 @@
 package data;
 
-import com.fasterxml.jackson.core.*;
 import components.AppDataComponent;
 import components.AppFileComponent;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Set;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
+ * Saves and loads games. Games are saved as human-readable JSON, or in the compact {@link BinaryGameCodec} format when
+ * the file name ends with {@code .}{@value #BINARY_EXTENSION}. A file whose name ends with {@code .}{@value
+ * #ARCHIVE_EXTENSION} is a {@link GameArchive} holding many games; it is kept open and mapped from its first use until
+ * {@link #closeArchiveAsync} is called.
+ *
  * @author Ritwik Banerjee
  * @author Eifu Tomita
  */
 public class GameDataFile implements AppFileComponent {
 
-    public static final String TARGET_WORD  = "TARGET_WORD";
-    public static final String GOOD_GUESSES = "GOOD_GUESSES";
-    public static final String BAD_GUESSES  = "BAD_GUESSES";
-    public static final String HINT_RESERVED = "HINT_RESERVED";
+    public static final String TARGET_WORD       = JsonGameCodec.TARGET_WORD;
+    public static final String GOOD_GUESSES      = JsonGameCodec.GOOD_GUESSES;
+    public static final String BAD_GUESSES       = JsonGameCodec.BAD_GUESSES;
+    public static final String HINT_RESERVED     = JsonGameCodec.HINT_RESERVED;
+    public static final String REMAINING_GUESSES = JsonGameCodec.REMAINING_GUESSES;
 
+    public static final String BINARY_EXTENSION  = "hgs"; // files saved in the compact binary format
+    public static final String ARCHIVE_EXTENSION = "hga"; // archives of many games
+
+    private static final Map<Path, GameArchive> ARCHIVES = new HashMap<>(); // every archive open, by absolute path
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-io");
+        thread.setDaemon(true);
+        return thread;
+    }); // writes every save in order, off the FX thread
+
+    /**
+     * Saves a game and waits for the save to complete. The save is queued behind any save that is already under way,
+     * so the file always ends up holding the most recent state.
+     */
     @Override
-    public void saveData(AppDataComponent data, Path to) {
-        GameData       gamedata    = (GameData) data;
-        Set<Character> goodguesses = gamedata.getGoodGuesses();
-        Set<Character> badguesses  = gamedata.getBadGuesses();
+    public void saveData(AppDataComponent data, Path to) throws IOException {
+        await(saveDataAsync(data, to));
+    }
 
-        JsonFactory jsonFactory = new JsonFactory();
+    /**
+     * Saves a game without blocking the caller. The state of the game is copied right away, on the calling thread, and
+     * then written on a background thread to a temporary file next to the target. The temporary file is forced to disk
+     * and then atomically moved over the target, so a crash in the middle of a save never leaves a truncated file.
+     *
+     * @param data The game to save.
+     * @param to   Where to save it.
+     * @return Completes with the target once the save is on disk, or exceptionally with the cause of the failure.
+     */
+    public CompletableFuture<Path> saveDataAsync(AppDataComponent data, Path to) {
+        if (isArchive(to))
+            return saveToArchiveAsync(data, to, -1).thenApply(slot -> to);
+        GameData snapshot = ((GameData) data).copy();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                write(isBinary(to) ? BinaryGameCodec.encode(snapshot) : encodeJson(snapshot), to);
+                return to;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IO);
+    }
 
-        try (OutputStream out = Files.newOutputStream(to)) {
+    /**
+     * Saves a game in an archive without blocking the caller. As with {@link #saveDataAsync}, the state of the game is
+     * copied right away and written on a background thread.
+     *
+     * @param data    The game to save.
+     * @param archive The archive to save it in; it is created if it does not exist yet.
+     * @param slot    The slot to save the game over, or a negative value to append it to the archive.
+     * @return Completes with the slot the game was saved in once it is on disk, or exceptionally with the cause of the
+     * failure.
+     */
+    public CompletableFuture<Integer> saveToArchiveAsync(AppDataComponent data, Path archive, int slot) {
+        GameData snapshot = ((GameData) data).copy();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                GameArchive games = getArchive(archive);
+                if (slot < 0 || slot >= games.size())
+                    return games.append(snapshot);
+                games.put(slot, snapshot);
+                return slot;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IO);
+    }
 
-            JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+    /**
+     * Loads a game from an archive.
+     *
+     * @param data    Where to load the game.
+     * @param archive The archive.
+     * @param slot    The slot of the game in the archive.
+     * @throws IOException If the archive could not be opened or the game is damaged.
+     */
+    public void loadFromArchive(AppDataComponent data, Path archive, int slot) throws IOException {
+        GameData gamedata = (GameData) data;
+        gamedata.reset();
+        getArchive(archive).load(slot, gamedata);
+    }
 
-            generator.writeStartObject();
+    /**
+     * Lists the games in an archive, the most recently saved first, on the background thread that does the file I/O.
+     * The list is read from the index fields of the slots; no game is loaded.
+     *
+     * @param archive The archive.
+     * @return Completes with the slots of the games, or exceptionally with the cause of the failure.
+     */
+    public CompletableFuture<int[]> listArchiveAsync(Path archive) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                GameArchive games = getArchive(archive);
+                int         size  = games.size();
+                long[]      order = new long[size];
+                for (int slot = 0; slot < size; slot++)
+                    order[slot] = games.getTimestamp(slot);
+                Integer[] slots = new Integer[size];
+                for (int slot = 0; slot < size; slot++)
+                    slots[slot] = slot;
+                Arrays.sort(slots, (a, b) -> Long.compare(order[b], order[a]));
+                int[] newestFirst = new int[size];
+                for (int i = 0; i < size; i++)
+                    newestFirst[i] = slots[i];
+                return newestFirst;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IO);
+    }
 
-            generator.writeStringField(TARGET_WORD, gamedata.getTargetWord());
+    /**
+     * Opens an archive, or returns it if it is open already. Archives stay open and mapped until they are closed, so
+     * that listing them and loading games from them again costs no I/O.
+     *
+     * @param archive The archive file; it is created if it does not exist yet.
+     * @return The open archive.
+     * @throws IOException If the archive could not be opened.
+     */
+    public static GameArchive getArchive(Path archive) throws IOException {
+        Path key = archive.toAbsolutePath().normalize();
+        synchronized (ARCHIVES) {
+            GameArchive games = ARCHIVES.get(key);
+            if (games == null)
+                ARCHIVES.put(key, games = GameArchive.open(key));
+            return games;
+        }
+    }
 
-            generator.writeBooleanField(HINT_RESERVED, gamedata.getHintReserved());
+    /**
+     * Closes an archive, if it is open, once the saves already queued have been written to it. It is opened again by
+     * its next use. The caller does not wait for the close, so this may be called on the JavaFX application thread.
+     *
+     * @param archive The archive file.
+     * @return Completes once the archive is closed, or fails with the {@link IOException} that kept it from closing.
+     */
+    public static CompletableFuture<Void> closeArchiveAsync(Path archive) {
+        Path key = archive.toAbsolutePath().normalize();
+        return CompletableFuture.runAsync(() -> {
+            GameArchive games;
+            synchronized (ARCHIVES) {
+                games = ARCHIVES.remove(key);
+            }
+            try {
+                if (games != null)
+                    games.close();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IO);
+    }
 
-            generator.writeFieldName(GOOD_GUESSES);
-            generator.writeStartArray(goodguesses.size());
-            for (Character c : goodguesses)
-                generator.writeString(c.toString());
-            generator.writeEndArray();
+    /**
+     * Closes every archive that is open, once the saves already queued have been written, and waits until they are
+     * closed; e.g., before the application exits.
+     *
+     * @throws IOException If an archive could not be closed; the others are closed all the same.
+     */
+    public static void closeArchives() throws IOException {
+        await(CompletableFuture.runAsync(() -> {
+            List<GameArchive> open;
+            synchronized (ARCHIVES) {
+                open = new ArrayList<>(ARCHIVES.values());
+                ARCHIVES.clear();
+            }
+            IOException failure = null;
+            for (GameArchive games : open) {
+                try {
+                    games.close();
+                } catch (IOException e) {
+                    if (failure == null)
+                        failure = e;
+                }
+            }
+            if (failure != null)
+                throw new CompletionException(failure);
+        }, IO));
+    }
 
-            generator.writeFieldName(BAD_GUESSES);
-            generator.writeStartArray(badguesses.size());
-            for (Character c : badguesses)
-                generator.writeString(c.toString());
-            generator.writeEndArray();
+    /** @return Whether the file is (to be) saved in the compact binary format, judging by its extension. */
+    public static boolean isBinary(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith("." + BINARY_EXTENSION);
+    }
 
-            generator.writeEndObject();
+    /** @return Whether the file is (to be) an archive of many games, judging by its extension. */
+    public static boolean isArchive(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith("." + ARCHIVE_EXTENSION);
+    }
 
-            generator.close();
+    private ByteBuffer encodeJson(GameData gamedata) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        JsonGameCodec.write(gamedata, bytes);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.exit(1);
+    /** Writes the bytes to a temporary file next to the target, forces them to disk, and moves the file into place. */
+    private void write(ByteBuffer payload, Path to) throws IOException {
+        Path parent    = to.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(parent, to.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (payload.hasRemaining())
+                    channel.write(payload);
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, to, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
         }
     }
 
     @Override
     public void loadData(AppDataComponent data, Path from) throws IOException {
         GameData gamedata = (GameData) data;
+        if (isArchive(from)) { // the game saved last
+            GameArchive games = getArchive(from);
+            int         size  = games.size();
+            if (size == 0)
+                throw new IOException("The archive " + from + " holds no games.");
+            int latest = 0;
+            for (int slot = 1; slot < size; slot++)
+                if (games.getTimestamp(slot) >= games.getTimestamp(latest))
+                    latest = slot;
+            loadFromArchive(data, from, latest);
+            return;
+        }
         gamedata.reset();
 
-        JsonFactory jsonFactory = new JsonFactory();
-        JsonParser  jsonParser  = jsonFactory.createParser(Files.newInputStream(from));
-
-        while (!jsonParser.isClosed()) {
-            JsonToken token = jsonParser.nextToken();
-            if (JsonToken.FIELD_NAME.equals(token)) {
-                String fieldname = jsonParser.getCurrentName();
-                switch (fieldname) {
-                    case TARGET_WORD:
-                        jsonParser.nextToken();
-                        gamedata.setTargetWord(jsonParser.getValueAsString());
-                        break;
-                    case HINT_RESERVED:
-                        jsonParser.nextToken();
-                        gamedata.setHintReserved(jsonParser.getValueAsBoolean());
-                    case GOOD_GUESSES:
-                        jsonParser.nextToken();
-                        while (jsonParser.nextToken() != JsonToken.END_ARRAY)
-                            gamedata.addGoodGuess(jsonParser.getText().charAt(0));
-                        break;
-                    case BAD_GUESSES:
-                        jsonParser.nextToken();
-                        while (jsonParser.nextToken() != JsonToken.END_ARRAY)
-                            gamedata.addBadGuess(jsonParser.getText().charAt(0));
-                        break;
-                    default:
-                        throw new JsonParseException(jsonParser, "Unable to load JSON data");
-                }
+        if (isBinary(from)) {
+            BinaryGameCodec.read(gamedata, from);
+        } else {
+            try (InputStream in = Files.newInputStream(from)) {
+                JsonGameCodec.read(gamedata, in);
             }
         }
+        MoveJournal.replay(from, gamedata); // the moves made since the game was last saved, if any
     }
 
-    /** This method will be used if we need to export data into other formats. */
+    /** Exports a game in the compact binary format, whatever the extension of the file, and waits for it to be written. */
     @Override
-    public void exportData(AppDataComponent data, Path filePath) throws IOException { }
+    public void exportData(AppDataComponent data, Path filePath) throws IOException {
+        GameData snapshot = ((GameData) data).copy();
+        await(CompletableFuture.runAsync(() -> {
+            try {
+                write(BinaryGameCodec.encode(snapshot), filePath);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IO));
+    }
+
+    /** Waits for a write queued on the I/O thread, and rethrows the exception it failed with, if any. */
+    private static void await(CompletableFuture<?> write) throws IOException {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package data;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The human-readable save format. A game is saved as a single JSON object holding the target word, whether the hint is
+ * still available, the good and the bad guesses (as arrays of one-letter strings) and the number of remaining guesses.
+ * Saves written before the number of remaining guesses was recorded are still read; the number is then worked out from
+ * the bad guesses and the hint.
+ * <p>
+ * The codec is stateless and shares a single {@link JsonFactory}, which is thread-safe, so any number of threads may
+ * read and write games at the same time. Every parser and generator is closed, and so is the stream it was made over.
+ *
+ * @author Eifu Tomita
+ */
+public final class JsonGameCodec {
+
+    public static final String TARGET_WORD       = "TARGET_WORD";
+    public static final String GOOD_GUESSES      = "GOOD_GUESSES";
+    public static final String BAD_GUESSES       = "BAD_GUESSES";
+    public static final String HINT_RESERVED     = "HINT_RESERVED";
+    public static final String REMAINING_GUESSES = "REMAINING_GUESSES";
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonGameCodec() {}
+
+    /**
+     * Writes a game.
+     *
+     * @param gamedata The game to write.
+     * @param out      Where to write it; the stream is closed afterwards.
+     * @throws IOException If the game could not be written.
+     */
+    public static void write(GameData gamedata, OutputStream out) throws IOException {
+        try (JsonGenerator generator = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField(TARGET_WORD, gamedata.getTargetWord());
+            generator.writeBooleanField(HINT_RESERVED, gamedata.getHintReserved());
+            writeGuesses(generator, GOOD_GUESSES, gamedata.getGoodGuessMask());
+            writeGuesses(generator, BAD_GUESSES, gamedata.getBadGuessMask());
+            generator.writeNumberField(REMAINING_GUESSES, gamedata.getRemainingGuesses());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a game in a single pass over the input. The game data is only updated once the whole game has been read,
+     * and then all at once, so the guesses are restored exactly as they were saved.
+     *
+     * @param gamedata Where to load the game.
+     * @param in       Where to read it from; the stream is closed afterwards.
+     * @throws IOException If the game could not be read or is not well-formed, e.g., if its target word is missing, too
+     *                     long, or not made of letters from a to z.
+     */
+    public static void read(GameData gamedata, InputStream in) throws IOException {
+        String  targetWord       = null;
+        boolean hintReserved     = true;
+        int     goodGuesses      = 0;
+        int     badGuesses       = 0;
+        int     remainingGuesses = -1;
+
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new JsonParseException(parser, "Unable to load JSON data");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldname = parser.getCurrentName();
+                parser.nextToken();
+                switch (fieldname) {
+                    case TARGET_WORD:
+                        targetWord = parser.getValueAsString();
+                        break;
+                    case HINT_RESERVED:
+                        hintReserved = parser.getValueAsBoolean();
+                        break;
+                    case GOOD_GUESSES:
+                        goodGuesses = readGuesses(parser);
+                        break;
+                    case BAD_GUESSES:
+                        badGuesses = readGuesses(parser);
+                        break;
+                    case REMAINING_GUESSES:
+                        remainingGuesses = parser.getValueAsInt();
+                        break;
+                    default:
+                        throw new JsonParseException(parser, "Unable to load JSON data");
+                }
+            }
+            if (!isWord(targetWord))
+                throw new JsonParseException(parser, "Unable to load JSON data");
+        }
+
+        if (remainingGuesses < 0) // saved before the number of remaining guesses was recorded
+            remainingGuesses = GameData.TOTAL_NUMBER_OF_GUESSES_ALLOWED - Integer.bitCount(badGuesses) - (hintReserved ? 0 : 1);
+        gamedata.setTargetWord(targetWord)
+                .setGoodGuessMask(goodGuesses)
+                .setBadGuessMask(badGuesses)
+                .setHintReserved(hintReserved)
+                .setRemainingGuesses(remainingGuesses);
+    }
+
+    /** @return Whether the text can be a target word: one to {@link GameData#MAX_WORD_LENGTH} letters from a to z. */
+    private static boolean isWord(String text) {
+        if (text == null || text.isEmpty() || text.length() > GameData.MAX_WORD_LENGTH)
+            return false;
+        for (int i = 0; i < text.length(); i++)
+            if (text.charAt(i) < 'a' || text.charAt(i) > 'z')
+                return false;
+        return true;
+    }
+
+        private static void writeGuesses(JsonGenerator generator, String fieldname, int guesses) throws IOException {
+        char[] letter = new char[1];
+        generator.writeFieldName(fieldname);
+        generator.writeStartArray(Integer.bitCount(guesses));
+        for (int letters = guesses; letters != 0; letters &= letters - 1) {
+            letter[0] = (char) ('a' + Integer.numberOfTrailingZeros(letters));
+            generator.writeString(letter, 0, 1);
+        }
+        generator.writeEndArray();
+    }
+
+    /** Reads an array of one-letter strings, starting on its START_ARRAY token, into a 26-bit mask. */
+    private static int readGuesses(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY)
+            throw new JsonParseException(parser, "Unable to load JSON data");
+        int guesses = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String text = parser.getText();
+            char   c    = text == null || text.isEmpty() ? 0 : text.charAt(0);
+            if (c < 'a' || c > 'z')
+                throw new JsonParseException(parser, "Unable to load JSON data");
+            guesses |= 1 << (c - 'a');
+        }
+        return guesses;
+    }
+}
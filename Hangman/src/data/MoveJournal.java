@@ -0,0 +1,349 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the moves made since a game was last saved, kept next to the save file (the snapshot) as
+ * {@code <snapshot>.journal}. Every guess and hint is appended as a fixed-size record, so a move costs a few bytes of
+ * I/O instead of a rewrite of the whole save. The records are buffered in memory and written and forced to disk in
+ * groups, every {@value #FLUSH_INTERVAL_MS} milliseconds at most, so a crash loses at most that much play.
+ * <p>
+ * {@link GameDataFile#loadData} replays the journal on top of the snapshot. Every record holds the number of guesses
+ * left after its move, which makes replaying a record twice harmless. {@link #compactAsync} can therefore save a new
+ * snapshot while the game goes on, and only then drop the records that the snapshot already holds. Records are told
+ * apart by a sequence number, counted from the opening of the journal, so a compaction only ever drops the records
+ * up to the last one its snapshot holds, however many records earlier compactions have dropped in the meantime.
+ * Compactions also run strictly one after the other, whoever starts them, and closing the journal waits for the last
+ * one to complete.
+ * <p>
+ * The journal starts with a header of {@value #HEADER_LENGTH} bytes: a magic number, the format version, and the
+ * target word of the game. A journal whose word does not match the snapshot is ignored. Each record takes
+ * {@value #RECORD_LENGTH} bytes: the kind of move, the letter, the remaining guesses, a padding byte and the CRC-32 of
+ * the first four bytes. A record torn by a crash fails its checksum, and replay stops there.
+ *
+ * @author Eifu Tomita
+ */
+public final class MoveJournal implements Closeable {
+
+    public static final String EXTENSION         = "journal";
+    public static final long   FLUSH_INTERVAL_MS = 200;
+
+    static final int MAGIC   = 0x48474d4a; // "HGMJ"
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 48; // magic, version, word length, word (padded to MAX_WORD_LENGTH), padding
+    static final int RECORD_LENGTH = 8;  // kind, letter, remaining guesses, padding, checksum
+
+    private static final byte GUESS = 'G';
+    private static final byte HINT  = 'H';
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-flush");
+        thread.setDaemon(true);
+        return thread;
+    }); // writes the pending records of every open journal
+
+    private final Path               snapshot; // the save file this journal applies to
+    private final FileChannel        channel;
+    private final ByteBuffer         pending = ByteBuffer.allocate(RECORD_LENGTH * 64); // appended, but not yet written
+    private final CRC32              crc     = new CRC32();
+    private final ScheduledFuture<?> flushes;
+    private long                     records;  // the number of records in the file
+    private long                     first;    // the sequence number of the first record in the file
+    private CompletableFuture<Path>  compaction; // the last compaction started
+
+    private MoveJournal(Path snapshot, FileChannel channel, long records) {
+        this.snapshot = snapshot;
+        this.channel = channel;
+        this.records = records;
+        this.compaction = CompletableFuture.completedFuture(snapshot);
+        this.flushes = FLUSHER.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                                                      TimeUnit.MILLISECONDS);
+    }
+
+    /** @return Where the journal of the given save file is kept. */
+    public static Path journalOf(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + "." + EXTENSION);
+    }
+
+    /**
+     * Opens the journal of a save file, for the game that is being played. If the journal already holds records for
+     * this game (e.g., ones that were just replayed), they are kept, and new records are appended after them; otherwise
+     * the journal is started over.
+     *
+     * The journal is locked until it is closed, so that no other instance of the application can write to it too.
+     *
+     * @param snapshot The save file the journal applies to.
+     * @param gamedata The game being played; it must have a target word.
+     * @return The open journal.
+     * @throws IOException If the journal could not be opened, or is open in another instance of the application.
+     */
+    public static MoveJournal open(Path snapshot, GameData gamedata) throws IOException {
+        FileChannel channel = FileChannel.open(journalOf(snapshot), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() == null) // released when the channel is closed
+                throw new IOException("The journal " + journalOf(snapshot) + " is in use by another instance.");
+            ByteBuffer header  = header(gamedata.getTargetWord());
+            ByteBuffer current = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, current, 0);
+            current.flip();
+            long records = 0;
+            if (current.equals(header)) {
+                records = (channel.size() - HEADER_LENGTH) / RECORD_LENGTH;
+            } else {
+                channel.truncate(0);
+                writeFully(channel, header, 0);
+                channel.force(false);
+            }
+            channel.truncate(HEADER_LENGTH + records * RECORD_LENGTH); // drops a torn last record, if any
+            return new MoveJournal(snapshot, channel, records);
+        } catch (OverlappingFileLockException e) {
+            channel.close();
+            throw new IOException("The journal " + journalOf(snapshot) + " is already open.", e);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the journal of a save file, if there is one, on top of the game loaded from that file. Replay stops at
+     * the first damaged record.
+     *
+     * @param snapshot The save file the game was loaded from.
+     * @param gamedata The game loaded from it.
+     * @return The number of records replayed.
+     * @throws IOException If the journal could not be read.
+     */
+    public static int replay(Path snapshot, GameData gamedata) throws IOException {
+        Path journal = journalOf(snapshot);
+        if (!Files.exists(journal) || gamedata.getTargetWord() == null)
+            return 0;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            ByteBuffer contents = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            readFully(channel, contents, 0);
+            contents.flip();
+            if (contents.remaining() < HEADER_LENGTH)
+                return 0;
+            ByteBuffer header = contents.duplicate();
+            header.limit(HEADER_LENGTH);
+            if (!header.equals(header(gamedata.getTargetWord())))
+                return 0;
+
+            CRC32 crc      = new CRC32();
+            int   replayed = 0;
+            for (int at = HEADER_LENGTH; at + RECORD_LENGTH <= contents.limit(); at += RECORD_LENGTH) {
+                if ((int) checksum(crc, contents, at) != contents.getInt(at + 4))
+                    break;
+                byte kind      = contents.get(at);
+                char letter    = (char) contents.get(at + 1);
+                int  remaining = contents.get(at + 2);
+                if (kind == HINT) {
+                    gamedata.addGoodGuess(letter);
+                    gamedata.setHintReserved(false);
+                } else if (kind == GUESS) {
+                    gamedata.addGuess(letter);
+                } else {
+                    break;
+                }
+                gamedata.setRemainingGuesses(remaining);
+                replayed++;
+            }
+            return replayed;
+        }
+    }
+
+    /** @return The save file this journal applies to. */
+    public Path getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Records a move. The record is only buffered here; it reaches the disk with the next group of records.
+     *
+     * @param letter           The letter that was guessed or given away.
+     * @param hint             Whether the move was the hint.
+     * @param remainingGuesses The number of guesses left after the move.
+     */
+    public synchronized void append(char letter, boolean hint, int remainingGuesses) {
+        if (pending.remaining() < RECORD_LENGTH)
+            flushQuietly();
+        int at = pending.position();
+        pending.put(hint ? HINT : GUESS);
+        pending.put((byte) letter);
+        pending.put((byte) remainingGuesses);
+        pending.put((byte) 0);
+        pending.putInt((int) checksum(crc, pending, at));
+    }
+
+    /**
+     * Writes the buffered records and forces them to disk.
+     *
+     * @throws IOException If the records could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.position() == 0)
+            return;
+        pending.flip();
+        int count = pending.remaining() / RECORD_LENGTH;
+        writeFully(channel, pending, HEADER_LENGTH + records * RECORD_LENGTH);
+        pending.clear();
+        records += count;
+        channel.force(false);
+    }
+
+    /**
+     * Folds the journal back into its snapshot: the game is saved to the snapshot file, and once that save is on
+     * disk, the records it holds are dropped from the journal. Moves made while the snapshot is being written are
+     * kept in the journal. The game is copied right away, but the snapshot is only written once every compaction
+     * started before this one has completed.
+     *
+     * @param file     Saves the snapshot.
+     * @param gamedata The game being played.
+     * @return Completes with the snapshot once it is on disk, or exceptionally with the cause of the failure.
+     */
+    public synchronized CompletableFuture<Path> compactAsync(GameDataFile file, GameData gamedata) {
+        flushQuietly();
+        long     folded = first + records + pending.position() / RECORD_LENGTH; // the first record not in the snapshot
+        GameData state  = gamedata.copy();                                       // the game as of those records
+        compaction = compaction.handle((saved, error) -> null)
+                               .thenCompose(previous -> file.saveDataAsync(state, snapshot))
+                               .thenApply(saved -> {
+                                   drop(folded);
+                                   return saved;
+                               });
+        return compaction;
+    }
+
+    /**
+     * Drops every record numbered below the given sequence number from the start of the journal, keeping any record
+     * written after them. Records that an earlier compaction already dropped are not counted again.
+     */
+    private synchronized void drop(long upTo) {
+        if (!channel.isOpen())
+            return;
+        try {
+            flush();
+            long count = Math.min(records, Math.max(0, upTo - first));
+            long kept  = records - count;
+            if (count == 0)
+                return;
+            if (kept > 0) {
+                ByteBuffer tail = ByteBuffer.allocate((int) (kept * RECORD_LENGTH));
+                readFully(channel, tail, HEADER_LENGTH + (records - kept) * RECORD_LENGTH);
+                tail.flip();
+                writeFully(channel, tail, HEADER_LENGTH);
+            }
+            channel.truncate(HEADER_LENGTH + kept * RECORD_LENGTH);
+            channel.force(false);
+            records = kept;
+            first += count;
+        } catch (IOException e) {
+            e.printStackTrace(); // the records are still there; they will be dropped by the next compaction
+        }
+    }
+
+    /**
+     * Waits for the compactions in flight, then writes the buffered records and closes the journal; the journal file
+     * itself is kept.
+     */
+    @Override
+    public void close() throws IOException {
+        awaitCompaction();
+        synchronized (this) {
+            flushes.cancel(false);
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Closes the journal and deletes it, along with the moves it holds, e.g., when the player chose not to save the
+     * game. The compactions in flight are waited for; the snapshot is left alone.
+     *
+     * @throws IOException If the journal could not be deleted.
+     */
+    public void discard() throws IOException {
+        awaitCompaction();
+        synchronized (this) {
+            flushes.cancel(false);
+            pending.clear();
+            channel.close();
+            Files.deleteIfExists(journalOf(snapshot));
+        }
+    }
+
+    /** Waits for the last compaction started to complete; its failure, if any, is reported to whoever started it. */
+    private void awaitCompaction() {
+        CompletableFuture<Path> last;
+        synchronized (this) {
+            last = compaction;
+        }
+        try {
+            last.join();
+        } catch (CompletionException | CancellationException e) {
+            // already reported
+        }
+    }
+
+    private synchronized void flushQuietly() {
+        try {
+            if (channel.isOpen())
+                flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ByteBuffer header(String word) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.put((byte) word.length());
+        for (int i = 0; i < word.length(); i++)
+            header.put((byte) word.charAt(i));
+        header.clear();
+        return header;
+    }
+
+    /** Computes the checksum of the first four bytes of the record at the given index. */
+    private static long checksum(CRC32 crc, ByteBuffer buffer, int at) {
+        crc.reset();
+        for (int i = 0; i < 4; i++)
+            crc.update(buffer.get(at + i));
+        return crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                return;
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+}
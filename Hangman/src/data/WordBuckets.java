@@ -0,0 +1,161 @@
+package data;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * An index over a {@link WordCorpus} that groups the words by length and by difficulty, where the difficulty of a word
+ * is the number of distinct letters in it. The words are kept in two orders, one sorted by length and then by
+ * difficulty, and one sorted by difficulty and then by length. Every query below therefore covers a single contiguous
+ * range of one of those orders, and a uniformly random word is picked from it in constant time, without rejection
+ * sampling or rescanning the corpus.
+ *
+ * @author Eifu Tomita
+ */
+public class WordBuckets {
+
+    public static final int MAX_DIFFICULTY = 26;
+    public static final int MAX_LENGTH     = GameData.MAX_WORD_LENGTH;
+
+    private static final int DIFFICULTIES = MAX_DIFFICULTY + 1;
+    private static final int LENGTHS      = MAX_LENGTH + 1;
+
+    private final WordCorpus corpus;
+    private final byte[]     difficulties;      // difficulties[i] is the number of distinct letters in the i-th word
+    private final int[]      byLength;          // word indices, ordered by length and then difficulty
+    private final int[]      byLengthStart;     // where each (length, difficulty) bucket starts in byLength
+    private final int[]      byDifficulty;      // word indices, ordered by difficulty and then length
+    private final int[]      byDifficultyStart; // where each (difficulty, length) bucket starts in byDifficulty
+
+    /**
+     * Builds the index. The difficulty of every word is computed once, in parallel, from the letter masks stored in the
+     * corpus; the two orders are then filled in with a counting sort.
+     *
+     * @param corpus The words to index.
+     */
+    public WordBuckets(WordCorpus corpus) {
+        int size = corpus.size();
+        this.corpus = corpus;
+        this.difficulties = new byte[size];
+        IntStream.range(0, size).parallel()
+                 .forEach(i -> difficulties[i] = (byte) Integer.bitCount(corpus.getLetterMask(i)));
+
+        byLengthStart = new int[LENGTHS * DIFFICULTIES + 1];
+        byDifficultyStart = new int[DIFFICULTIES * LENGTHS + 1];
+        for (int i = 0; i < size; i++) {
+            byLengthStart[lengthKey(corpus.getLength(i), difficulties[i]) + 1]++;
+            byDifficultyStart[difficultyKey(difficulties[i], corpus.getLength(i)) + 1]++;
+        }
+        for (int k = 1; k < byLengthStart.length; k++) {
+            byLengthStart[k] += byLengthStart[k - 1];
+            byDifficultyStart[k] += byDifficultyStart[k - 1];
+        }
+
+        byLength = new int[size];
+        byDifficulty = new int[size];
+        int[] nextByLength     = byLengthStart.clone();
+        int[] nextByDifficulty = byDifficultyStart.clone();
+        for (int i = 0; i < size; i++) {
+            byLength[nextByLength[lengthKey(corpus.getLength(i), difficulties[i])]++] = i;
+            byDifficulty[nextByDifficulty[difficultyKey(difficulties[i], corpus.getLength(i))]++] = i;
+        }
+    }
+
+    public WordCorpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * @param index A value in {@code [0, getCorpus().size())}.
+     * @return The number of distinct letters in the word at that position of the corpus.
+     */
+    public int getDifficulty(int index) {
+        return difficulties[index];
+    }
+
+    /**
+     * Counts the words whose length lies in {@code [minLength, maxLength]}.
+     *
+     * @param minLength The smallest accepted word length.
+     * @param maxLength The largest accepted word length.
+     * @return The number of matching words.
+     */
+    public int countWithLength(int minLength, int maxLength) {
+        minLength = clamp(minLength, 0, LENGTHS);
+        maxLength = clamp(maxLength, -1, MAX_LENGTH);
+        if (minLength > maxLength)
+            return 0;
+        return byLengthStart[lengthKey(maxLength + 1, 0)] - byLengthStart[lengthKey(minLength, 0)];
+    }
+
+    /**
+     * Counts the words with the given difficulty whose length lies in {@code [minLength, maxLength]}.
+     *
+     * @param difficulty The number of distinct letters.
+     * @param minLength  The smallest accepted word length.
+     * @param maxLength  The largest accepted word length.
+     * @return The number of matching words.
+     */
+    public int countWithDifficulty(int difficulty, int minLength, int maxLength) {
+        minLength = clamp(minLength, 0, LENGTHS);
+        maxLength = clamp(maxLength, -1, MAX_LENGTH);
+        if (difficulty < 0 || difficulty > MAX_DIFFICULTY || minLength > maxLength)
+            return 0;
+        return byDifficultyStart[difficultyKey(difficulty, maxLength + 1)] -
+               byDifficultyStart[difficultyKey(difficulty, minLength)];
+    }
+
+    /**
+     * Picks a word whose length lies in {@code [minLength, maxLength]}, uniformly at random.
+     *
+     * @param minLength The smallest accepted word length.
+     * @param maxLength The largest accepted word length.
+     * @return The index of the word in the corpus, or {@code -1} if there is no such word.
+     */
+    public int randomWithLength(int minLength, int maxLength) {
+        int count = countWithLength(minLength, maxLength);
+        if (count == 0)
+            return -1;
+        int from = byLengthStart[lengthKey(clamp(minLength, 0, LENGTHS), 0)];
+        return byLength[from + ThreadLocalRandom.current().nextInt(count)];
+    }
+
+    /**
+     * Picks a word with the given number of distinct letters, uniformly at random.
+     *
+     * @param difficulty The number of distinct letters.
+     * @return The index of the word in the corpus, or {@code -1} if there is no such word.
+     */
+    public int randomWithDifficulty(int difficulty) {
+        return randomWithDifficulty(difficulty, 0, MAX_LENGTH);
+    }
+
+    /**
+     * Picks a word with the given number of distinct letters whose length lies in {@code [minLength, maxLength]},
+     * uniformly at random.
+     *
+     * @param difficulty The number of distinct letters.
+     * @param minLength  The smallest accepted word length.
+     * @param maxLength  The largest accepted word length.
+     * @return The index of the word in the corpus, or {@code -1} if there is no such word.
+     */
+    public int randomWithDifficulty(int difficulty, int minLength, int maxLength) {
+        int count = countWithDifficulty(difficulty, minLength, maxLength);
+        if (count == 0)
+            return -1;
+        int from = byDifficultyStart[difficultyKey(difficulty, clamp(minLength, 0, LENGTHS))];
+        return byDifficulty[from + ThreadLocalRandom.current().nextInt(count)];
+    }
+
+    private static int lengthKey(int length, int difficulty) {
+        return length * DIFFICULTIES + difficulty;
+    }
+
+    private static int difficultyKey(int difficulty, int length) {
+        return difficulty * LENGTHS + length;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
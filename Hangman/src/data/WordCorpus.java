@@ -0,0 +1,367 @@
+package data;
+
+import apptemplate.CacheDirectory;
+import controller.GameError;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * The word list used to pick target words. Whenever possible, the corpus is loaded with a single memory mapping of the
+ * precompiled dictionary produced by {@link WordCorpusCompiler}, either the one kept in the user's cache directory or
+ * one shipped next to the words file. A dictionary is up to date if it records the size and the modification time of
+ * the current words file; only when the times differ is the words file read through to compare checksums. If no
+ * dictionary is up to date, one is rebuilt in the cache directory (so read-only or packaged resources are fine), or
+ * the words file itself is mapped and indexed instead. Either way, choosing a random word is a constant time lookup
+ * that does not touch the file system, and a single corpus is shared by every {@link GameData} in the JVM.
+ *
+ * @author Eifu Tomita
+ */
+public class WordCorpus {
+
+    public static final String WORDS_RESOURCE      = "words/words.txt";
+    public static final String DICTIONARY_RESOURCE = "words/words.bin";
+    public static final String CACHE_NAME          = "hangman"; // the cache directory the dictionary is rebuilt in
+
+    // layout of the precompiled dictionary; all values are big-endian
+    static final int MAGIC         = 0x48475744; // "HGWD"
+    static final int VERSION       = 3;          // 3: the source modification time is recorded
+    static final int HEADER_LENGTH = 40;         // magic, version, source length, time and checksum, count, word bytes
+
+    private static volatile WordCorpus singleton = null;
+
+    private final ByteBuffer words;   // the letters of every word
+    private final IntBuffer  offsets; // offsets.get(i) is where the i-th word starts in words
+    private final ByteBuffer lengths; // lengths.get(i) is the number of letters in the i-th word
+    private final IntBuffer  masks;   // bit (c - 'a') of masks.get(i) is set iff the i-th word contains c
+
+    private volatile WordBuckets buckets; // built on first use
+
+    private WordCorpus(ByteBuffer words, IntBuffer offsets, ByteBuffer lengths, IntBuffer masks) {
+        this.words = words;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.masks = masks;
+    }
+
+    /**
+     * Accessor for the corpus shared by the whole application. The dictionary is loaded on the first call only; every
+     * later call returns the same instance.
+     *
+     * @return The shared word corpus.
+     */
+    public static WordCorpus getCorpus() {
+        WordCorpus corpus = singleton;
+        if (corpus == null) {
+            synchronized (WordCorpus.class) {
+                corpus = singleton;
+                if (corpus == null)
+                    singleton = corpus = loadCorpus();
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * Accessor for the length and difficulty index over this corpus. The index is built on the first call only.
+     *
+     * @return The index shared by every user of this corpus.
+     */
+    public WordBuckets getBuckets() {
+        WordBuckets index = buckets;
+        if (index == null) {
+            synchronized (this) {
+                index = buckets;
+                if (index == null)
+                    buckets = index = new WordBuckets(this);
+            }
+        }
+        return index;
+    }
+
+    /** @return The number of usable words in this corpus. */
+    public int size() {
+        return offsets.limit();
+    }
+
+    /**
+     * Returns the word at the given position of the index.
+     *
+     * @param index A value in {@code [0, size())}.
+     * @return The word at that position.
+     */
+    public String getWord(int index) {
+        int    start = offsets.get(index);
+        byte[] bytes = new byte[lengths.get(index)];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = words.get(start + i);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param index A value in {@code [0, size())}.
+     * @return The number of letters in the word at that position.
+     */
+    public int getLength(int index) {
+        return lengths.get(index);
+    }
+
+    /**
+     * @param index A value in {@code [0, size())}.
+     * @return The 26-bit mask of the letters in the word at that position, with bit 0 standing for 'a'.
+     */
+    public int getLetterMask(int index) {
+        return masks.get(index);
+    }
+
+    /** @return A word picked uniformly at random from the corpus. */
+    public String randomWord() {
+        if (size() == 0)
+            throw new GameError("The word list contains no usable words.");
+        return getWord(ThreadLocalRandom.current().nextInt(size()));
+    }
+
+    /**
+     * Computes the checksum recorded in a dictionary, so that a dictionary compiled from an older words file can be
+     * told apart from an up-to-date one.
+     */
+    static long checksum(ByteBuffer text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.duplicate());
+        return crc.getValue();
+    }
+
+    /**
+     * Builds a corpus by scanning the words file itself. Only lines made up entirely of lowercase letters, and no
+     * longer than {@link GameData#MAX_WORD_LENGTH}, are kept.
+     *
+     * @param text The contents of the words file.
+     * @return A corpus that indexes the usable words in place.
+     */
+    static WordCorpus indexText(ByteBuffer text) {
+        int[]  starts = new int[1 << 16];
+        byte[] sizes  = new byte[1 << 16];
+        int[]  sets   = new int[1 << 16];
+        int    count  = 0;
+        int    limit  = text.limit();
+        int    start  = 0;
+        while (start < limit) {
+            int     end     = start;
+            int     mask    = 0;
+            boolean letters = true;
+            byte    b;
+            while (end < limit && (b = text.get(end)) != '\n') {
+                if (b >= 'a' && b <= 'z')
+                    mask |= 1 << (b - 'a');
+                else if (b != '\r')
+                    letters = false;
+                end++;
+            }
+            int stop = end > start && text.get(end - 1) == '\r' ? end - 1 : end;
+            if (letters && stop > start && stop - start <= GameData.MAX_WORD_LENGTH) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count << 1);
+                    sizes = Arrays.copyOf(sizes, count << 1);
+                    sets = Arrays.copyOf(sets, count << 1);
+                }
+                starts[count] = start;
+                sizes[count] = (byte) (stop - start);
+                sets[count] = mask;
+                count++;
+            }
+            start = end + 1;
+        }
+        return new WordCorpus(text,
+                              IntBuffer.wrap(Arrays.copyOf(starts, count)),
+                              ByteBuffer.wrap(Arrays.copyOf(sizes, count)),
+                              IntBuffer.wrap(Arrays.copyOf(sets, count)));
+    }
+
+    /**
+     * Builds a corpus over a precompiled dictionary, without copying any of it.
+     *
+     * @param dictionary The contents of a dictionary written by {@link WordCorpusCompiler}.
+     * @param text       The contents of the current words file, or {@code null} if it is unknown.
+     * @param modified   When the words file was last modified, in milliseconds since the epoch, or {@code 0} if that is
+     *                   unknown.
+     * @return The corpus, or {@code null} if the dictionary is malformed or stale.
+     */
+    static WordCorpus readDictionary(ByteBuffer dictionary, ByteBuffer text, long modified) {
+        if (dictionary.limit() < HEADER_LENGTH || dictionary.getInt(0) != MAGIC || dictionary.getInt(4) != VERSION)
+            return null;
+        if (text != null && !isCompiledFrom(dictionary, text, modified))
+            return null;
+        int count     = dictionary.getInt(32);
+        int wordBytes = dictionary.getInt(36);
+        if (count < 0 || wordBytes < 0 || dictionary.limit() != HEADER_LENGTH + 9L * count + wordBytes)
+            return null;
+
+        int offsetsAt = HEADER_LENGTH;
+        int masksAt   = offsetsAt + 4 * count;
+        int lengthsAt = masksAt + 4 * count;
+        int wordsAt   = lengthsAt + count;
+        return new WordCorpus(slice(dictionary, wordsAt, wordBytes),
+                              slice(dictionary, offsetsAt, 4 * count).asIntBuffer(),
+                              slice(dictionary, lengthsAt, count),
+                              slice(dictionary, masksAt, 4 * count).asIntBuffer());
+    }
+
+    /**
+     * Tells whether a dictionary was compiled from the given words file. A matching size and modification time are
+     * taken as proof; otherwise, the checksum of the whole words file has to match.
+     */
+    static boolean isCompiledFrom(ByteBuffer dictionary, ByteBuffer text, long modified) {
+        if (dictionary.getLong(8) != text.limit())
+            return false;
+        if (modified != 0 && dictionary.getLong(16) == modified)
+            return true;
+        return dictionary.getLong(24) == checksum(text);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
+
+    private static WordCorpus loadCorpus() {
+        URL wordsResource      = WordCorpus.class.getClassLoader().getResource(WORDS_RESOURCE);
+        URL dictionaryResource = WordCorpus.class.getClassLoader().getResource(DICTIONARY_RESOURCE);
+        if (wordsResource == null) {
+            WordCorpus corpus = dictionaryResource == null ? null : readDictionary(load(dictionaryResource), null, 0);
+            if (corpus == null)
+                throw new GameError("Unable to find the word list " + WORDS_RESOURCE + ".");
+            return corpus;
+        }
+
+        ByteBuffer text     = load(wordsResource);
+        long       modified = lastModified(wordsResource);
+        Path       cached   = cachedDictionary();
+        if (cached != null && Files.isRegularFile(cached)) {
+            try {
+                WordCorpus corpus = readCurrent(map(cached), text, modified, cached);
+                if (corpus != null)
+                    return corpus;
+            } catch (IOException e) {
+                // unreadable; it is rebuilt below
+            }
+        }
+        if (dictionaryResource != null) {
+            WordCorpus corpus = readCurrent(load(dictionaryResource), text, modified, cached);
+            if (corpus != null)
+                return corpus;
+        }
+
+        // no dictionary is up to date: rebuild the one in the cache directory, if there is one
+        if (cached != null) {
+            try {
+                WordCorpusCompiler.compile(text, modified, cached);
+                WordCorpus corpus = readDictionary(map(cached), null, 0);
+                if (corpus != null)
+                    return corpus;
+            } catch (IOException e) {
+                // the cache is not writable; fall through and index the words file directly
+            }
+        }
+        return indexText(text);
+    }
+
+    /**
+     * Reads a dictionary if it was compiled from the given words file. If that could only be told from the checksum,
+     * a copy that records the current modification time is kept in the cache, so the next launch can skip the checksum.
+     */
+    private static WordCorpus readCurrent(ByteBuffer dictionary, ByteBuffer text, long modified, Path cached) {
+        WordCorpus corpus = readDictionary(dictionary, text, modified);
+        if (corpus != null && cached != null && modified != 0 && dictionary.getLong(16) != modified) {
+            ByteBuffer copy = ByteBuffer.allocate(dictionary.limit());
+            copy.put(dictionary.duplicate()).putLong(16, modified).flip();
+            try {
+                Path temporary = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".tmp");
+                try {
+                    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                        while (copy.hasRemaining())
+                            channel.write(copy);
+                    }
+                    Files.move(temporary, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException e) {
+                // the checksum is simply computed again next time
+            }
+        }
+        return corpus;
+    }
+
+    /** @return Where the dictionary is kept in the user's cache directory, or {@code null} if there is none. */
+    private static Path cachedDictionary() {
+        try {
+            return CacheDirectory.get(CACHE_NAME).resolve(Paths.get(DICTIONARY_RESOURCE).getFileName());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long lastModified(URL resource) {
+        try {
+            Path path = toPath(resource);
+            if (path != null)
+                return Files.getLastModifiedTime(path).toMillis();
+            return resource.openConnection().getLastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Path toPath(URL resource) {
+        try {
+            Path path = Paths.get(resource.toURI());
+            return Files.isRegularFile(path) ? path : null;
+        } catch (URISyntaxException | FileSystemNotFoundException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static ByteBuffer load(URL resource) {
+        try {
+            Path path = toPath(resource);
+            if (path != null)
+                return map(path);
+
+            // the resource is packaged (e.g., inside a jar), so it cannot be mapped; read it into memory instead
+            try (InputStream in = resource.openStream()) {
+                ByteArrayOutputStream out    = new ByteArrayOutputStream(1 << 22);
+                byte[]                buffer = new byte[1 << 16];
+                int                   read;
+                while ((read = in.read(buffer)) != -1)
+                    out.write(buffer, 0, read);
+                return ByteBuffer.wrap(out.toByteArray());
+            }
+        } catch (IOException e) {
+            throw new GameError("Unable to load " + resource + ".");
+        }
+    }
+}
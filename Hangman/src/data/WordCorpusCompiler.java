@@ -0,0 +1,89 @@
+package data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Compiles the words file into the packed dictionary that {@link WordCorpus} maps at startup. The dictionary holds only
+ * the usable words (letters only, and no longer than {@link GameData#MAX_WORD_LENGTH}), laid out as
+ * <ol>
+ * <li>a header with a magic number, the format version, the length, modification time and CRC-32 checksum of the
+ * words file it was compiled from, the number of words and the number of bytes taken up by their letters,</li>
+ * <li>the offset of every word,</li>
+ * <li>the 26-bit letter mask of every word,</li>
+ * <li>the length of every word, and</li>
+ * <li>the letters of all the words, back to back.</li>
+ * </ol>
+ * The compiler can be run by hand or as a build step:
+ * <pre>java data.WordCorpusCompiler [words.txt [words.bin]]</pre>
+ *
+ * @author Eifu Tomita
+ */
+public class WordCorpusCompiler {
+
+    public static final Path DEFAULT_SOURCE = Paths.get("Hangman", "resources", "words", "words.txt");
+    public static final Path DEFAULT_TARGET = Paths.get("Hangman", "resources", "words", "words.bin");
+
+    private WordCorpusCompiler() {}
+
+    public static void main(String[] args) throws IOException {
+        Path source = args.length > 0 ? Paths.get(args[0]) : DEFAULT_SOURCE;
+        Path target = args.length > 1 ? Paths.get(args[1]) : source.resolveSibling(DEFAULT_TARGET.getFileName());
+        int  count  = compile(WordCorpus.map(source), Files.getLastModifiedTime(source).toMillis(), target);
+        System.out.println(String.format("Compiled %d words from %s into %s.", count, source, target));
+    }
+
+    /**
+     * Writes the dictionary for the given words file. The dictionary is first written to a temporary file and then
+     * moved into place, so that a concurrently starting game never maps a half-written dictionary.
+     *
+     * @param text     The contents of the words file.
+     * @param modified When the words file was last modified, in milliseconds since the epoch, or {@code 0} if unknown.
+     * @param target   Where to write the dictionary.
+     * @return The number of words in the dictionary.
+     * @throws IOException If the dictionary could not be written.
+     */
+    public static int compile(ByteBuffer text, long modified, Path target) throws IOException {
+        WordCorpus corpus    = WordCorpus.indexText(text);
+        int        count     = corpus.size();
+        int        wordBytes = 0;
+        for (int i = 0; i < count; i++)
+            wordBytes += corpus.getLength(i);
+
+        Path parent    = target.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(WordCorpus.MAGIC);
+                out.writeInt(WordCorpus.VERSION);
+                out.writeLong(text.limit());
+                out.writeLong(modified);
+                out.writeLong(WordCorpus.checksum(text));
+                out.writeInt(count);
+                out.writeInt(wordBytes);
+
+                int offset = 0;
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(offset);
+                    offset += corpus.getLength(i);
+                }
+                for (int i = 0; i < count; i++)
+                    out.writeInt(corpus.getLetterMask(i));
+                for (int i = 0; i < count; i++)
+                    out.writeByte(corpus.getLength(i));
+                for (int i = 0; i < count; i++)
+                    out.writeBytes(corpus.getWord(i));
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return count;
+    }
+}
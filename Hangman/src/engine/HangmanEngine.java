@@ -0,0 +1,128 @@
+package engine;
+
+import data.GameData;
+
+/**
+ * The rules of Hangman, independent of any user interface. The engine is a small state machine over a {@link GameData}:
+ * a game is started with {@link #newGame()}, moves are made with {@link #guess(char)} and {@link #hint()}, and the game
+ * is over as soon as the word is revealed or the guesses run out. The GUI drives the very same engine, so simulations,
+ * servers and benchmarks play by exactly the same rules as the player does.
+ * <p>
+ * None of the moves allocate, so a single engine can be reused for any number of games.
+ *
+ * @author Eifu Tomita
+ */
+public class HangmanEngine {
+
+    public enum Status {
+        IN_PROGRESS,
+        WON,
+        LOST
+    }
+
+    public enum GuessResult {
+        INVALID,  // not a letter from 'a' to 'z', or the game is already over
+        REPEATED, // the letter was already guessed
+        GOOD,     // the letter is in the target word
+        BAD       // the letter is not in the target word
+    }
+
+    private final GameData gamedata;
+
+    /**
+     * Creates an engine over the given game data. The engine keeps no state of its own, so it can pick up a game that
+     * was loaded into the data, and several engines may be created over the same data.
+     *
+     * @param gamedata The game to play.
+     */
+    public HangmanEngine(GameData gamedata) {
+        this.gamedata = gamedata;
+    }
+
+    public GameData getGameData() {
+        return gamedata;
+    }
+
+    /** Starts a new game with a word picked at random from the shared word corpus. */
+    public void newGame() {
+        gamedata.init();
+    }
+
+    /**
+     * Starts a new game with the given target word.
+     *
+     * @param targetWord A word made up of lowercase letters.
+     */
+    public void newGame(String targetWord) {
+        gamedata.init(targetWord);
+    }
+
+    /**
+     * Makes a guess. Uppercase letters are treated as their lowercase counterparts.
+     *
+     * @param c The guessed letter.
+     * @return The outcome of the guess.
+     */
+    public GuessResult guess(char c) {
+        if (c >= 'A' && c <= 'Z')
+            c += 'a' - 'A';
+        if (c < 'a' || c > 'z' || isOver())
+            return GuessResult.INVALID;
+        if (gamedata.isGuessed(c))
+            return GuessResult.REPEATED;
+        return gamedata.addGuess(c) ? GuessResult.GOOD : GuessResult.BAD;
+    }
+
+    /** @return Whether hints are offered at all for the current word, which is the case for difficult words only. */
+    public boolean isHintOffered() {
+        return gamedata.getDifficulty();
+    }
+
+    /**
+     * A hint may be taken once per game, for difficult words only, and only while it would not cost the last guess.
+     *
+     * @return Whether {@link #hint()} would reveal a letter right now.
+     */
+    public boolean canHint() {
+        return gamedata.getHintReserved() && isHintOffered() && gamedata.getRemainingGuesses() > 1 && !isOver();
+    }
+
+    /**
+     * Takes the hint: the first letter (in alphabetical order) that is still hidden is revealed, at the cost of one
+     * remaining guess.
+     *
+     * @return The revealed letter, or {@code 0} if no hint could be taken.
+     */
+    public char hint() {
+        int hidden = gamedata.getHiddenLetters();
+        if (!canHint() || hidden == 0)
+            return 0;
+        char letter = (char) ('a' + Integer.numberOfTrailingZeros(hidden));
+        gamedata.addGoodGuess(letter);
+        gamedata.setHintReserved(false);
+        gamedata.setRemainingGuesses(gamedata.getRemainingGuesses() - 1);
+        return letter;
+    }
+
+    public int getRemainingGuesses() {
+        return gamedata.getRemainingGuesses();
+    }
+
+    public boolean isWon() {
+        return gamedata.isWon();
+    }
+
+    public boolean isLost() {
+        return !gamedata.isWon() && gamedata.getRemainingGuesses() <= 0;
+    }
+
+    public boolean isOver() {
+        return gamedata.isWon() || gamedata.getRemainingGuesses() <= 0;
+    }
+
+    public Status getStatus() {
+        if (gamedata.isWon())
+            return Status.WON;
+        return gamedata.getRemainingGuesses() <= 0 ? Status.LOST : Status.IN_PROGRESS;
+    }
+}
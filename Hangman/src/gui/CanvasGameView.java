@@ -0,0 +1,153 @@
+package gui;
+
+import data.GameData;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+import java.util.function.Consumer;
+
+/**
+ * A {@link GameView} that paints the whole game, i.e., the figure, the word and the keyboard, on a single canvas. The
+ * scene graph holds just one node however long the word and however far the game, so there is nothing for JavaFX to
+ * lay out or style, and the canvas is repainted only when the game changes. This suits slow machines; it is chosen
+ * with the {@code GAME_RENDERER} workspace property or the {@code hangman.renderer} system property.
+ *
+ * @author Eifu Tomita
+ */
+public class CanvasGameView implements GameView {
+
+    private static final double WIDTH        = 620;
+    private static final double HEIGHT       = 420;
+    private static final double FIGURE_SCALE = 0.65; // the figure is drawn at this scale, in the left part of the canvas
+    private static final double BOARD_LEFT   = 310;  // where the word and the keyboard start
+    private static final double TILE         = 25;   // the size of a letter slot of the word, including its margin
+    private static final double TILE_FACE    = 20;
+    private static final int    TILE_COLUMNS = 12;
+    private static final double KEY          = 42;   // the size of a key, including its margin
+    private static final double KEY_FACE     = 38;
+    private static final int    KEY_COLUMNS  = 7;
+
+    private final Canvas        canvas = new Canvas(WIDTH, HEIGHT);
+    private GameData            gamedata;     // the game being shown, if any
+    private boolean             ended;        // whether the whole word is to be shown
+    private double              keyboardTop;  // where the keyboard was last painted
+    private Consumer<Character> onKeyClicked; // told which letter was clicked, if anything is
+
+    public CanvasGameView() {
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, this::handleClick);
+    }
+
+    @Override
+    public Node getFigure() {
+        return canvas;
+    }
+
+    @Override
+    public Node getBoard() {
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        gamedata = null;
+        ended = false;
+        repaint();
+    }
+
+    @Override
+    public void reset(GameData gamedata) {
+        this.gamedata = gamedata;
+        ended = false;
+        repaint();
+    }
+
+    @Override
+    public void apply(GameDelta delta) {
+        repaint();
+    }
+
+    @Override
+    public void showEnd(GameData gamedata) {
+        this.gamedata = gamedata;
+        ended = true;
+        repaint();
+    }
+
+    @Override
+    public void setOnKeyClicked(Consumer<Character> onKeyClicked) {
+        this.onKeyClicked = onKeyClicked;
+    }
+
+    private void repaint() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, WIDTH, HEIGHT);
+        if (gamedata == null)
+            return;
+        paintFigure(gc, gamedata.getRemainingGuesses());
+        paintWord(gc);
+        paintKeyboard(gc);
+    }
+
+    private void paintFigure(GraphicsContext gc, int remainingGuesses) {
+        gc.save();
+        gc.scale(FIGURE_SCALE, FIGURE_SCALE);
+        gc.setStroke(Color.BLACK);
+        gc.setFill(Color.BLACK);
+        for (int r = Gallows.parts() - 1; r >= Math.max(0, remainingGuesses); r--) {
+            double[] part = Gallows.part(r);
+            if (Gallows.isHead(r)) {
+                gc.fillOval(part[0] - part[2], part[1] - part[2], 2 * part[2], 2 * part[2]);
+            } else {
+                gc.setLineWidth(part[4]);
+                gc.strokeLine(part[0], part[1], part[2], part[3]);
+            }
+        }
+        gc.restore();
+    }
+
+    private void paintWord(GraphicsContext gc) {
+        String word     = gamedata.getTargetWord();
+        int    revealed = gamedata.getRevealedPositions();
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        for (int i = 0; i < word.length(); i++) {
+            double  x     = BOARD_LEFT + (i % TILE_COLUMNS) * TILE;
+            double  y     = (i / TILE_COLUMNS) * TILE;
+            boolean shown = (revealed & (1 << i)) != 0;
+            gc.setFill(ended && !shown ? Color.LIGHTBLUE : Color.WHITE);
+            gc.fillRect(x + (TILE - TILE_FACE) / 2, y + (TILE - TILE_FACE) / 2, TILE_FACE, TILE_FACE);
+            if (shown || ended) {
+                gc.setFill(Color.BLACK);
+                gc.fillText(word.substring(i, i + 1), x + TILE / 2, y + TILE / 2);
+            }
+        }
+        keyboardTop = ((word.length() + TILE_COLUMNS - 1) / TILE_COLUMNS) * TILE + TILE;
+    }
+
+    private void paintKeyboard(GraphicsContext gc) {
+        int guessed = gamedata.getGoodGuessMask() | gamedata.getBadGuessMask();
+        for (int i = 0; i < 26; i++) {
+            double x = BOARD_LEFT + (i % KEY_COLUMNS) * KEY;
+            double y = keyboardTop + (i / KEY_COLUMNS) * KEY;
+            gc.setFill((guessed & (1 << i)) != 0 ? Color.AQUA : Color.LIGHTCYAN);
+            gc.fillRect(x + (KEY - KEY_FACE) / 2, y + (KEY - KEY_FACE) / 2, KEY_FACE, KEY_FACE);
+            gc.setFill(Color.BLACK);
+            gc.fillText(Character.toString((char) ('a' + i)), x + KEY / 2, y + KEY / 2);
+        }
+    }
+
+    private void handleClick(MouseEvent event) {
+        if (onKeyClicked == null || gamedata == null || event.getX() < BOARD_LEFT || event.getY() < keyboardTop)
+            return;
+        int column = (int) ((event.getX() - BOARD_LEFT) / KEY);
+        int row    = (int) ((event.getY() - keyboardTop) / KEY);
+        int letter = row * KEY_COLUMNS + column;
+        if (column < KEY_COLUMNS && letter < 26)
+            onKeyClicked.accept((char) ('a' + letter));
+    }
+}
@@ -0,0 +1,54 @@
+package gui;
+
+import data.GameData;
+
+/**
+ * The geometry of the hangman figure, shared by every {@link GameView}. The figure is drawn in a box of
+ * {@link #WIDTH} by {@link #HEIGHT}, one part for each wrong guess (or hint), from the base of the gallows down to the
+ * last foot.
+ *
+ * @author Eifu Tomita
+ */
+final class Gallows {
+
+    static final double WIDTH  = 450;
+    static final double HEIGHT = 395;
+
+    // PARTS[r] is the part drawn when the remaining guesses drop to r: a line from (x1, y1) to (x2, y2) and its
+    // stroke width, except for the head, which is a disc given by its center, its radius and 0
+    private static final double[][] PARTS = {
+            {WIDTH * 0.4, HEIGHT * 0.55, WIDTH * 0.5, HEIGHT * 0.65, 7},          // right foot
+            {WIDTH * 0.4, HEIGHT * 0.55, WIDTH * 0.3, HEIGHT * 0.65, 7},          // left foot
+            {WIDTH * 0.4, HEIGHT * 0.35, WIDTH * 0.5, HEIGHT * 0.4, 7},           // right arm
+            {WIDTH * 0.4, HEIGHT * 0.35, WIDTH * 0.3, HEIGHT * 0.4, 7},           // left arm
+            {WIDTH * 0.4, HEIGHT * 0.3, WIDTH * 0.4, HEIGHT * 0.55, 7},           // body
+            {WIDTH * 0.4, HEIGHT * 0.2 + WIDTH * 0.05, WIDTH * 0.05, 0},          // head
+            {WIDTH * 0.4, 0, WIDTH * 0.4, HEIGHT * 0.2, 5},                       // rope
+            {WIDTH * 0.2, 0, WIDTH * 0.4, 0, 5},                                  // beam
+            {WIDTH * 0.2, HEIGHT * 0.8, WIDTH * 0.2, 0, 5},                       // post
+            {WIDTH * 0.1, HEIGHT * 0.8, WIDTH, HEIGHT * 0.8, 5}                   // base
+    };
+
+    private Gallows() {}
+
+    /** @return The number of parts in the whole figure, which is the number of guesses a game starts with. */
+    static int parts() {
+        return GameData.TOTAL_NUMBER_OF_GUESSES_ALLOWED;
+    }
+
+    /**
+     * @param remainingGuesses A value in {@code [0, parts())}.
+     * @return Whether the part drawn at that point is the head rather than a line.
+     */
+    static boolean isHead(int remainingGuesses) {
+        return PARTS[remainingGuesses].length == 4;
+    }
+
+    /**
+     * @param remainingGuesses A value in {@code [0, parts())}.
+     * @return The coordinates of the part drawn at that point, as described for {@link #PARTS}.
+     */
+    static double[] part(int remainingGuesses) {
+        return PARTS[remainingGuesses];
+    }
+}
@@ -0,0 +1,53 @@
+package gui;
+
+import data.GameData;
+
+/**
+ * What a single move changed in a game: the letter that was guessed or given away, where it shows up in the target
+ * word, and how many guesses are left afterwards. The workspace and the {@link GameView} apply a delta in place, so a
+ * move only touches the few controls that actually changed.
+ *
+ * @author Eifu Tomita
+ */
+public final class GameDelta {
+
+    private final char    letter;           // the letter that was guessed or given away
+    private final int     positions;        // bit i is set iff the letter is the i-th letter of the target word
+    private final int     remainingGuesses; // the number of guesses left after the move
+    private final boolean hint;             // whether the letter was given away by the hint
+
+    public GameDelta(char letter, int positions, int remainingGuesses, boolean hint) {
+        this.letter = letter;
+        this.positions = positions;
+        this.remainingGuesses = remainingGuesses;
+        this.hint = hint;
+    }
+
+    /**
+     * Describes a move that was just made.
+     *
+     * @param gamedata The game, after the move.
+     * @param letter   The letter that was guessed or given away.
+     * @param hint     Whether the move was the hint.
+     * @return The change brought by the move.
+     */
+    public static GameDelta of(GameData gamedata, char letter, boolean hint) {
+        return new GameDelta(letter, gamedata.getLetterPositions(letter), gamedata.getRemainingGuesses(), hint);
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    public int getRemainingGuesses() {
+        return remainingGuesses;
+    }
+
+    public boolean isHint() {
+        return hint;
+    }
+}
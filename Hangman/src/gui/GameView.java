@@ -0,0 +1,59 @@
+package gui;
+
+import data.GameData;
+import javafx.scene.Node;
+
+import java.util.function.Consumer;
+
+/**
+ * Draws a game of Hangman: the gallows figure, the slots of the target word and the on-screen keyboard. The controller
+ * tells the view what happened and the view decides how to show it, so the same game can be rendered with a tree of
+ * JavaFX nodes ({@link NodeGameView}, the default) or painted on a single canvas ({@link CanvasGameView}).
+ *
+ * @author Eifu Tomita
+ */
+public interface GameView {
+
+    String NODES  = "nodes";
+    String CANVAS = "canvas";
+
+    /** @return The node to show on the left of the workspace. */
+    Node getFigure();
+
+    /** @return The node to show under the number of remaining guesses, or {@code null} if the figure shows it all. */
+    Node getBoard();
+
+    /**
+     * Shows no game at all, as before the first game is started. Views keep their nodes across games, so clearing or
+     * resetting a view never rebuilds the scene graph.
+     */
+    void clear();
+
+    /**
+     * Shows a game as it currently is, e.g., when it has just been started or loaded.
+     *
+     * @param gamedata The game to show.
+     */
+    void reset(GameData gamedata);
+
+    /**
+     * Shows the outcome of a move, i.e., a guess or a hint, in the game that was last passed to {@link #reset}.
+     *
+     * @param delta What the move changed.
+     */
+    void apply(GameDelta delta);
+
+    /**
+     * Shows the end of a game: the whole word, with the letters that were never found set apart.
+     *
+     * @param gamedata The game that just ended.
+     */
+    void showEnd(GameData gamedata);
+
+    /**
+     * Sets what happens when a letter of the on-screen keyboard is clicked.
+     *
+     * @param onKeyClicked Told which letter was clicked, or {@code null} to ignore clicks.
+     */
+    void setOnKeyClicked(Consumer<Character> onKeyClicked);
+}
@@ -0,0 +1,78 @@
+package gui;
+
+import javafx.scene.Node;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
+
+import java.util.function.Consumer;
+
+/**
+ * The on-screen keyboard that shows which letters have been guessed. The 26 keys are built once, when the workspace is
+ * built, and are then reset in place for every new or loaded game, so playing round after round does not create any
+ * new nodes. A single handler on the keyboard itself serves clicks on all of the keys.
+ *
+ * @author Eifu Tomita
+ */
+public class Keyboard extends FlowPane {
+
+    private static final int   LETTERS   = 26;
+    private static final Color UNGUESSED = Color.LIGHTCYAN;
+    private static final Color GUESSED   = Color.AQUA;
+
+    private final Rectangle[]   faces = new Rectangle[LETTERS]; // faces[c - 'a'] is the colored face of the key for c
+    private Consumer<Character> onKeyClicked;                   // told which letter was clicked, if anything is
+
+    public Keyboard() {
+        for (int i = 0; i < LETTERS; i++) {
+            Rectangle border = new Rectangle(45, 45);
+            border.setFill(Color.TRANSPARENT);
+            faces[i] = new Rectangle(40, 40);
+            faces[i].setFill(UNGUESSED);
+            StackPane key = new StackPane(border, faces[i], new Text(Character.toString((char) ('a' + i))));
+            key.setUserData((char) ('a' + i));
+            getChildren().add(key);
+        }
+        addEventHandler(MouseEvent.MOUSE_CLICKED, this::handleClick);
+    }
+
+    /**
+     * Shows the given letters as guessed, and every other letter as not guessed.
+     *
+     * @param guessed A 26-bit mask of the guessed letters, with bit 0 standing for 'a'.
+     */
+    public void reset(int guessed) {
+        for (int i = 0; i < LETTERS; i++)
+            faces[i].setFill((guessed & (1 << i)) != 0 ? GUESSED : UNGUESSED);
+    }
+
+    /** Shows the given letter as guessed. */
+    public void markGuessed(char c) {
+        if (c >= 'a' && c <= 'z')
+            faces[c - 'a'].setFill(GUESSED);
+    }
+
+    /**
+     * Sets what happens when a key is clicked.
+     *
+     * @param onKeyClicked Told which letter was clicked, or {@code null} to ignore clicks.
+     */
+    public void setOnKeyClicked(Consumer<Character> onKeyClicked) {
+        this.onKeyClicked = onKeyClicked;
+    }
+
+    private void handleClick(MouseEvent event) {
+        if (onKeyClicked == null)
+            return;
+        // walk up from whatever was clicked (a face, its border or its letter) to the key itself
+        for (Node node = event.getPickResult().getIntersectedNode(); node != null && node != this; node = node.getParent()) {
+            if (node.getParent() == this && node.getUserData() instanceof Character) {
+                onKeyClicked.accept((Character) node.getUserData());
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package gui;
+
+import data.GameData;
+import javafx.scene.Node;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.Shape;
+import javafx.scene.text.Text;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The default {@link GameView}, made of ordinary JavaFX nodes: a shape for every part of the figure, a small stack of
+ * nodes for every letter of the word, and the {@link Keyboard}. The nodes are created once and then only shown, hidden
+ * or relabeled, so starting or loading a game does not rebuild any part of the scene graph.
+ *
+ * @author Eifu Tomita
+ */
+public class NodeGameView implements GameView {
+
+    private final Pane     figurePane = new Pane();                    // every part of the figure, shown as it is drawn
+    private final HBox     wordPane   = new HBox();                    // one tile per letter of the target word
+    private final Keyboard keyboard   = new Keyboard();                // the letters guessed so far
+    private final VBox     board      = new VBox(wordPane, keyboard);
+    private final Shape[]  parts      = new Shape[Gallows.parts()];    // parts[r] is drawn once r guesses are left
+
+    private StackPane[] tiles = new StackPane[0]; // tiles[i] shows the i-th letter of the target word; grown as needed
+    private int         shown;                    // the number of tiles used by the current word
+    private int         drawn;                    // the figure shows the parts for remaining guesses in [drawn, parts())
+
+    public NodeGameView() {
+        figurePane.setPrefSize(500, 500);
+        wordPane.setStyle("-fx-background-color: transparent;");
+        for (int r = parts.length - 1; r >= 0; r--) // in drawing order, so that later parts are on top
+            figurePane.getChildren().add(parts[r] = makePart(r));
+        clear();
+    }
+
+    @Override
+    public Node getFigure() {
+        return figurePane;
+    }
+
+    @Override
+    public Node getBoard() {
+        return board;
+    }
+
+    @Override
+    public void clear() {
+        for (Shape part : parts)
+            part.setVisible(false);
+        showTiles(0);
+        keyboard.setVisible(false);
+        drawn = parts.length;
+    }
+
+    @Override
+    public void reset(GameData gamedata) {
+        clear();
+        String targetword = gamedata.getTargetWord();
+        int    revealed   = gamedata.getRevealedPositions();
+        if (targetword.length() > tiles.length)
+            growTiles(targetword.length());
+        for (int i = 0; i < targetword.length(); i++) {
+            ((Rectangle) tiles[i].getChildren().get(1)).setFill(Color.WHITE);
+            Text t = (Text) tiles[i].getChildren().get(2);
+            t.setText(Character.toString(targetword.charAt(i)));
+            t.setVisible((revealed & (1 << i)) != 0);
+        }
+        showTiles(targetword.length());
+        keyboard.reset(gamedata.getGoodGuessMask() | gamedata.getBadGuessMask());
+        keyboard.setVisible(true);
+        drawDownTo(gamedata.getRemainingGuesses());
+    }
+
+    @Override
+    public void apply(GameDelta delta) {
+        keyboard.markGuessed(delta.getLetter());
+        for (int positions = delta.getPositions(); positions != 0; positions &= positions - 1)
+            tiles[Integer.numberOfTrailingZeros(positions)].getChildren().get(2).setVisible(true);
+        drawDownTo(delta.getRemainingGuesses());
+    }
+
+    @Override
+    public void showEnd(GameData gamedata) {
+        for (int i = 0; i < shown; i++) {
+            tiles[i].getChildren().get(2).setVisible(true);
+            if ((gamedata.getRevealedPositions() & (1 << i)) == 0)
+                ((Rectangle) tiles[i].getChildren().get(1)).setFill(Color.LIGHTBLUE);
+        }
+        drawDownTo(gamedata.getRemainingGuesses());
+    }
+
+    @Override
+    public void setOnKeyClicked(Consumer<Character> onKeyClicked) {
+        keyboard.setOnKeyClicked(onKeyClicked);
+    }
+
+    /** Shows the parts of the figure that are still hidden for the given number of remaining guesses. */
+    private void drawDownTo(int remainingGuesses) {
+        while (drawn > Math.max(0, remainingGuesses))
+            parts[--drawn].setVisible(true);
+    }
+
+    /** Lays out the first {@code count} tiles and takes the others out of the layout, without removing any of them. */
+    private void showTiles(int count) {
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i].setVisible(i < count);
+            tiles[i].setManaged(i < count);
+        }
+        shown = count;
+    }
+
+    /** Adds tiles until there is one for every letter of a word of the given length; existing tiles are kept. */
+    private void growTiles(int length) {
+        int         from  = tiles.length;
+        StackPane[] grown = Arrays.copyOf(tiles, length);
+        for (int i = from; i < length; i++) {
+            Rectangle rect_out = new Rectangle(25, 25);
+            rect_out.setFill(Color.TRANSPARENT);
+            Rectangle rect_in = new Rectangle(20, 20);
+            rect_in.setFill(Color.WHITE);
+            grown[i] = new StackPane(rect_out, rect_in, new Text());
+        }
+        tiles = grown;
+        wordPane.getChildren().addAll(Arrays.asList(tiles).subList(from, length));
+    }
+
+    private static Shape makePart(int remainingGuesses) {
+        double[] part = Gallows.part(remainingGuesses);
+        if (Gallows.isHead(remainingGuesses))
+            return new Circle(part[0], part[1], part[2]);
+        Shape line = new Line(part[0], part[1], part[2], part[3]);
+        line.setStrokeWidth(part[4]);
+        return line;
+    }
+}
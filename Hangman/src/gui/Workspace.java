@@ -4,6 +4,7 @@ import apptemplate.AppTemplate;
 import components.AppWorkspaceComponent;
 import controller.HangmanController;
 import data.GameData;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -38,13 +39,13 @@ public class Workspace extends AppWorkspaceComponent {
     HBox              headPane;          // conatainer to display the heading
     HBox              bodyPane;          // container for the main game displays
     ToolBar           footToolbar;       // toolbar for game buttons
-    Pane        figurePane;        // container to display the namesake graphic of the (potentially) hanging person
     VBox              gameTextsPane;     // container to display the text-related parts of the game
-    HBox              guessedLetters;    // text area displaying all the letters guessed so far
     HBox              remainingGuessBox; // container to display the number of remaining guesses
     Button            startGame;         // the button to start playing a game of Hangman
     Button            hintGame;
-    FlowPane          guessedKeys;
+    Label             remainingGuessesLabel; // the caption in front of the number of remaining guesses
+    Label             remainingGuesses;  // the number of remaining guesses
+    GameView          gameView;          // draws the figure, the word and the keyboard
     HangmanController controller;
 
     /**
@@ -61,6 +62,7 @@ public class Workspace extends AppWorkspaceComponent {
         controller = (HangmanController) gui.getFileController();    //new HangmanController(app, startGame); <-- THIS WAS A MAJOR BUG!??
         layoutGUI();     // initialize all the workspace (GUI) components including the containers and their layout
         setupHandlers(); // ... and set up event handling
+        Platform.runLater(controller::offerRecovery); // once the window is up, offer the game an earlier run left behind
     }
 
     private void layoutGUI() {
@@ -71,25 +73,24 @@ public class Workspace extends AppWorkspaceComponent {
         headPane.getChildren().add(guiHeadingLabel);
         headPane.setAlignment(Pos.CENTER);
 
-        figurePane = new Pane();
+        gameView = makeGameView();
 
-        gameTextsPane = new VBox();
-        remainingGuessBox = new HBox();
-        guessedLetters = new HBox();
-        guessedLetters.setStyle("-fx-background-color: transparent;");
-
-        guessedKeys = new FlowPane();
+        remainingGuessesLabel = new Label(propertyManager.getPropertyValue(REMAINING_GUESSES_LABEL));
+        remainingGuesses = new Label();
+        remainingGuessBox = new HBox(remainingGuessesLabel, remainingGuesses);
 
+        hintGame = new Button(propertyManager.getPropertyValue(HINT_LABEL));
 
-        hintGame = new Button("Hint");
-        hintGame.setVisible(false);
-
-        gameTextsPane.getChildren().setAll(remainingGuessBox, guessedLetters,guessedKeys, hintGame);
+        gameTextsPane = new VBox();
+        if (gameView.getBoard() == null)
+            gameTextsPane.getChildren().setAll(remainingGuessBox, hintGame);
+        else
+            gameTextsPane.getChildren().setAll(remainingGuessBox, gameView.getBoard(), hintGame);
 
         bodyPane = new HBox();
-        bodyPane.getChildren().addAll(figurePane, gameTextsPane);
+        bodyPane.getChildren().addAll(gameView.getFigure(), gameTextsPane);
 
-        startGame = new Button("Start Playing");
+        startGame = new Button(propertyManager.getPropertyValue(START_PLAYING_LABEL));
         HBox blankBoxLeft  = new HBox();
         HBox blankBoxRight = new HBox();
         HBox.setHgrow(blankBoxLeft, Priority.ALWAYS);
@@ -98,6 +99,17 @@ public class Workspace extends AppWorkspaceComponent {
 
         workspace = new VBox();
         workspace.getChildren().addAll(headPane, bodyPane, footToolbar);
+        clear();
+    }
+
+    /**
+     * Makes the view chosen by the {@code hangman.renderer} system property if it is set, and by the GAME_RENDERER
+     * workspace property otherwise.
+     */
+    private static GameView makeGameView() {
+        String renderer = System.getProperty("hangman.renderer",
+                                             PropertyManager.getManager().getPropertyValue(GAME_RENDERER));
+        return GameView.CANVAS.equalsIgnoreCase(renderer) ? new CanvasGameView() : new NodeGameView();
     }
 
     private void setupHandlers() {
@@ -125,18 +137,20 @@ public class Workspace extends AppWorkspaceComponent {
 
     }
 
-    /** This function reloads the entire workspace */
+    /** Sets the text of every control from the current properties, after a switch to another language. */
     @Override
-    public void reloadWorkspace() {
-        /* does nothing; use reinitialize() instead */
-    }
-
-    public VBox getGameTextsPane() {
-        return gameTextsPane;
+    public void relabel() {
+        PropertyManager propertyManager = PropertyManager.getManager();
+        guiHeadingLabel.setText(propertyManager.getPropertyValue(WORKSPACE_HEADING_LABEL));
+        startGame.setText(propertyManager.getPropertyValue(START_PLAYING_LABEL));
+        hintGame.setText(propertyManager.getPropertyValue(HINT_LABEL));
+        remainingGuessesLabel.setText(propertyManager.getPropertyValue(REMAINING_GUESSES_LABEL));
     }
 
-    public HBox getRemainingGuessBox() {
-        return remainingGuessBox;
+    /** This function reloads the entire workspace */
+    @Override
+    public void reloadWorkspace() {
+        /* does nothing; use clear() and reset(GameData) instead */
     }
 
     public Button getStartGame() {
@@ -145,30 +159,40 @@ public class Workspace extends AppWorkspaceComponent {
 
     public Button getHintGame(){ return hintGame;}
 
-    public Pane getFigurePane(){return figurePane;}
-
-    public FlowPane getGuessedKeys(){return guessedKeys;}
-
-    public HBox getBodyPane(){return bodyPane;}
-
-    public void reinitialize() {
+    public Label getRemainingGuessesLabel() { return remainingGuessesLabel; }
 
-        remainingGuessBox = new HBox();
-        guessedLetters = new HBox();
-        guessedLetters.setStyle("-fx-background-color: transparent;");
-        gameTextsPane = new VBox();
-
-        guessedKeys = new FlowPane();
+    public GameView getGameView() { return gameView; }
 
-        hintGame = new Button("Hint");
-        //  TODO check if this works.
-        //        hintGame.setDisable(!((GameData)app.getDataComponent()).getHintReserved());
-        hintGame.setVisible(((GameData)app.getDataComponent()).getDifficulty());
-        gameTextsPane.getChildren().setAll(remainingGuessBox, guessedLetters, guessedKeys, hintGame);
-
-        figurePane = new Pane();
+    /** Shows no game at all, as before the first game is started. */
+    public void clear() {
+        remainingGuessBox.setVisible(false);
+        hintGame.setVisible(false);
+        gameView.clear();
+    }
 
+    /**
+     * Shows a game as it currently is, e.g., when it has just been started or loaded. Every control is kept and only
+     * updated in place, so neither the scene graph nor its styles are rebuilt.
+     *
+     * @param gamedata The game to show.
+     */
+    public void reset(GameData gamedata) {
+        remainingGuesses.setText(Integer.toString(gamedata.getRemainingGuesses()));
+        remainingGuessBox.setVisible(true);
+        hintGame.setVisible(gamedata.getDifficulty());
+        hintGame.setDisable(!gamedata.getHintReserved());
+        gameView.reset(gamedata);
+    }
 
-        bodyPane.getChildren().setAll(figurePane, gameTextsPane);
+    /**
+     * Shows the outcome of a move in the game that was last passed to {@link #reset(GameData)}.
+     *
+     * @param delta What the move changed.
+     */
+    public void apply(GameDelta delta) {
+        remainingGuesses.setText(Integer.toString(delta.getRemainingGuesses()));
+        if (delta.isHint())
+            hintGame.setDisable(true);
+        gameView.apply(delta);
     }
 }
@@ -7,6 +7,7 @@ import components.AppFileComponent;
 import components.AppWorkspaceComponent;
 import data.GameData;
 import data.GameDataFile;
+import data.WordCorpus;
 import gui.Workspace;
 
 /**
@@ -18,6 +19,12 @@ public class Hangman extends AppTemplate {
         launch(args);
     }
 
+    /** Loads the word list, and indexes it by length and difficulty, before the first game needs it. */
+    @Override
+    protected void warmUpHook() {
+        WordCorpus.getCorpus().getBuckets();
+    }
+
     public String getFileControllerClass() {
         return "HangmanController";
     }
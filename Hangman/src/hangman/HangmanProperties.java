@@ -10,5 +10,10 @@ public enum HangmanProperties {
     SEGMENTED_BUTTON_BAR,
     FIRST_TOOLBAR_BUTTON,
     LAST_TOOLBAR_BUTTON,
-    HEADING_LABEL;
+    HEADING_LABEL,
+    START_PLAYING_LABEL,
+    HINT_LABEL,
+    REMAINING_GUESSES_LABEL,
+    GAME_RENDERER,
+    AUTOSAVE_INTERVAL_MS;
 }
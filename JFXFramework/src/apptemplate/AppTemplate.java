@@ -7,17 +7,29 @@ import components.AppDataComponent;
 import components.AppFileComponent;
 import components.AppWorkspaceComponent;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import propertymanager.PropertyManager;
+import propertymanager.PropertySnapshot;
+import settings.AppPropertyType;
 import settings.InitializationParameters;
 import ui.AppGUI;
 import ui.AppMessageDialogSingleton;
+import ui.ImageCache;
 import ui.LanguageDialogSingleton;
 import ui.YesNoCancelDialogSingleton;
 import xmlutils.InvalidXMLFileFormatException;
 
-import java.io.File;
 import java.net.URL;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static settings.AppPropertyType.*;
 import static settings.InitializationParameters.*;
@@ -34,6 +46,25 @@ public abstract class AppTemplate extends Application {
     private AppGUI                gui;
     private static InitializationParameters language;
 
+    // the property file of each language offered by the language dialog
+    private static final Map<String, InitializationParameters> LANGUAGES = new LinkedHashMap<>();
+
+    static {
+        LANGUAGES.put(LanguageDialogSingleton.English, APP_PROPERTIES_XML);
+        LANGUAGES.put(LanguageDialogSingleton.Japanese, JAPANESE_APP_PROPERTIES_XML);
+    }
+
+    // every property file, parsed in the background as soon as the application starts
+    private final Map<InitializationParameters, CompletableFuture<PropertySnapshot>> preloadedProperties =
+            new EnumMap<>(InitializationParameters.class);
+
+    // the images shown by the GUI as soon as it is built, decoded in the background during startup
+    private static final AppPropertyType[] STARTUP_IMAGES = {APP_LOGO, NEW_ICON, LOAD_ICON, SAVE_ICON, EXIT_ICON};
+
+    private final StartupTimer        startupTimer = new StartupTimer();
+    private ExecutorService           startupExecutor; // runs the I/O-bound parts of startup, off the FX thread
+    private CompletableFuture<String> stylesheet;      // the location of the application stylesheet, once resolved
+
     public String getFileControllerClass() {
         return "AppFileController";
     }
@@ -56,8 +87,41 @@ public abstract class AppTemplate extends Application {
         return gui;
     }
 
+    /**
+     * Hook for application-specific work that is needed soon after startup but does not touch the scene graph, such as
+     * loading large data files. It runs on a background thread while the FX thread sets up the GUI. Does nothing by
+     * default.
+     */
+    protected void warmUpHook() {}
+
+    public StartupTimer getStartupTimer() {
+        return startupTimer;
+    }
+
+    /**
+     * Starts the application. Everything that does not touch the scene graph (parsing the property files, the
+     * application's own warm-up, decoding the toolbar images and resolving the stylesheet) runs on a background
+     * executor, and the FX thread only waits for each of those results right where it needs it. The time taken by
+     * every phase is reported on standard error when the system property {@code startup.timing} is {@code true}.
+     */
     @Override
     public void start(Stage primaryStage) {
+        startupExecutor = Executors.newFixedThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()),
+                                                       new StartupThreadFactory());
+
+        // the property files are parsed, and the application warms up, while the user is still choosing a language
+        preloadProperties();
+        startupExecutor.execute(() -> {
+            try {
+                startupTimer.time("warm-up", () -> {
+                    warmUpHook();
+                    return null;
+                });
+            } catch (CompletionException e) {
+                e.getCause().printStackTrace();
+            }
+        });
+
         AppMessageDialogSingleton  messageDialog = AppMessageDialogSingleton.getSingleton();
         YesNoCancelDialogSingleton yesNoDialog   = YesNoCancelDialogSingleton.getSingleton();
         messageDialog.init(primaryStage);
@@ -65,38 +129,54 @@ public abstract class AppTemplate extends Application {
 
         LanguageDialogSingleton langDialog = LanguageDialogSingleton.getSingleton();
         langDialog.init(primaryStage);
+        startupTimer.mark("dialogs");
         langDialog.show("Language", "which one to choose?");
         if (langDialog.getSelection()!=null && langDialog.getSelection().equals(LanguageDialogSingleton.English)){
             language = APP_PROPERTIES_XML;
         } else {
             language = JAPANESE_APP_PROPERTIES_XML;
         }
+        startupTimer.mark("language dialog");
         try {
             if (loadProperties(language) && loadProperties(WORKSPACE_PROPERTIES_XML)) {
+                startupTimer.mark("properties");
+                preloadResources();
+
                 AppComponentsBuilder builder = makeAppBuilderHook();
 
                 fileComponent = builder.buildFileComponent();
                 dataComponent = builder.buildDataComponent();
+                startupTimer.mark("data components");
                 gui = (propertyManager.hasProperty(APP_WINDOW_WIDTH) && propertyManager.hasProperty(APP_WINDOW_HEIGHT))
-                      ? new AppGUI(primaryStage, propertyManager.getPropertyValue(APP_TITLE.toString()), this,
-                                   Integer.parseInt(propertyManager.getPropertyValue(APP_WINDOW_WIDTH)),
-                                   Integer.parseInt(propertyManager.getPropertyValue(APP_WINDOW_HEIGHT)))
-                      : new AppGUI(primaryStage, propertyManager.getPropertyValue(APP_TITLE.toString()), this);
+                      ? new AppGUI(primaryStage, propertyManager.getPropertyValue(APP_TITLE), this,
+                                   propertyManager.getInt(APP_WINDOW_WIDTH),
+                                   propertyManager.getInt(APP_WINDOW_HEIGHT))
+                      : new AppGUI(primaryStage, propertyManager.getPropertyValue(APP_TITLE), this);
+                startupTimer.mark("gui");
                 workspaceComponent = builder.buildWorkspaceComponent();
+                startupTimer.mark("workspace");
                 initStylesheet();
                 gui.initStyle();
                 workspaceComponent.initStyle();
+                startupTimer.mark("styles");
             }
         } catch (Exception e) {
             AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
             dialog.show(propertyManager.getPropertyValue(PROPERTIES_LOAD_ERROR_TITLE.toString()),
                         propertyManager.getPropertyValue(PROPERTIES_LOAD_ERROR_MESSAGE.toString()));
+        } finally {
+            // tasks already handed to the executor still run; its threads then go away
+            startupExecutor.shutdown();
         }
+        Platform.runLater(() -> {
+            startupTimer.mark("first frame");
+            startupTimer.printReport();
+        });
     }
 
     public boolean loadProperties(InitializationParameters propertyParameter) {
         try {
-            propertyManager.loadProperties(AppTemplate.class, propertyParameter.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+            propertyManager.publish(propertyManager.getSnapshot().merge(getProperties(propertyParameter)));
         } catch (InvalidXMLFileFormatException e) {
             AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
             dialog.show(propertyManager.getPropertyValue(PROPERTIES_LOAD_ERROR_TITLE.toString()),
@@ -107,11 +187,99 @@ public abstract class AppTemplate extends Application {
         return true;
     }
 
+    /**
+     * Starts parsing the property files of every language, and the workspace property file, in parallel and in the
+     * background, so that whichever language is chosen is ready by the time the language dialog closes.
+     */
+    private void preloadProperties() {
+        for (InitializationParameters languageProperties : LANGUAGES.values())
+            preloadProperties(languageProperties);
+        preloadProperties(WORKSPACE_PROPERTIES_XML);
+    }
+
+    private void preloadProperties(InitializationParameters propertyParameter) {
+        preloadedProperties.put(propertyParameter, CompletableFuture.supplyAsync(
+                () -> startupTimer.time("parse " + propertyParameter.getParameter(),
+                                        () -> propertyManager.readProperties(AppTemplate.class,
+                                                                             propertyParameter.getParameter(),
+                                                                             PROPERTIES_SCHEMA_XSD.getParameter())),
+                startupExecutor));
+    }
+
+    /**
+     * Starts decoding the images of the toolbar and resolving the stylesheet, which can only be done once the
+     * properties naming them are loaded. The images are decoded by JavaFX's own background loader.
+     */
+    private void preloadResources() {
+        for (AppPropertyType image : STARTUP_IMAGES)
+            ImageCache.getSingleton().preload(propertyManager.getPropertyValue(image));
+        stylesheet = CompletableFuture.supplyAsync(() -> startupTimer.time("resolve stylesheet", this::resolveStylesheet),
+                                                   startupExecutor);
+    }
+
+    /**
+     * Accessor for the contents of a property file, waiting for it to be parsed if it was preloaded but is not ready
+     * yet, and parsing it right away if it was not preloaded at all.
+     */
+    private PropertySnapshot getProperties(InitializationParameters propertyParameter) throws InvalidXMLFileFormatException {
+        CompletableFuture<PropertySnapshot> preloaded = preloadedProperties.get(propertyParameter);
+        if (preloaded == null)
+            return propertyManager.readProperties(AppTemplate.class, propertyParameter.getParameter(),
+                                                  PROPERTIES_SCHEMA_XSD.getParameter());
+        try {
+            return preloaded.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof InvalidXMLFileFormatException)
+                throw (InvalidXMLFileFormatException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Switches the whole application to another language, without restarting it or rebuilding its scene. The
+     * properties of the new language replace the current ones in a single step, and the GUI and the workspace are then
+     * asked to relabel their controls. Dialogs read their texts when they are shown, so they follow automatically.
+     *
+     * @param languageName One of the languages offered by {@link LanguageDialogSingleton}.
+     */
+    public void switchLanguage(String languageName) {
+        InitializationParameters languageProperties = LANGUAGES.get(languageName);
+        if (languageProperties == null || languageProperties == language)
+            return;
+        try {
+            propertyManager.publish(getProperties(languageProperties).merge(getProperties(WORKSPACE_PROPERTIES_XML)));
+        } catch (InvalidXMLFileFormatException e) {
+            AppMessageDialogSingleton dialog = AppMessageDialogSingleton.getSingleton();
+            dialog.show(propertyManager.getPropertyValue(PROPERTIES_LOAD_ERROR_TITLE),
+                        propertyManager.getPropertyValue(PROPERTIES_LOAD_ERROR_MESSAGE));
+            return;
+        }
+        language = languageProperties;
+        gui.relabel();
+        workspaceComponent.relabel();
+    }
+
     public void initStylesheet() {
-        URL cssResource = getClass().getClassLoader().getResource(propertyManager.getPropertyValue(APP_PATH_CSS) +
-                                                                  File.separator +
+        String cssLocation = stylesheet == null ? resolveStylesheet() : stylesheet.join();
+        gui.getPrimaryScene().getStylesheets().add(cssLocation);
+    }
+
+    private String resolveStylesheet() {
+        URL cssResource = getClass().getClassLoader().getResource(propertyManager.getPropertyValue(APP_PATH_CSS) + "/" +
                                                                   propertyManager.getPropertyValue(APP_CSS));
         assert cssResource != null;
-        gui.getPrimaryScene().getStylesheets().add(cssResource.toExternalForm());
+        return cssResource.toExternalForm();
+    }
+
+    /** Names the startup threads, and lets the JVM exit without waiting for them. */
+    private static class StartupThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "startup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
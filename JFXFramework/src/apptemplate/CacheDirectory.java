@@ -0,0 +1,90 @@
+package apptemplate;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Locates the directories in which an application keeps its caches. Each user gets their own, under the platform's
+ * usual place for per-user caches, so that nothing another user left behind is ever read: {@code %LOCALAPPDATA%} on
+ * Windows, {@code ~/Library/Caches} on macOS, and {@code $XDG_CACHE_HOME} or {@code ~/.cache} elsewhere. The system
+ * property {@code app.cache.dir} overrides that location.
+ * <p>
+ * Where the file system supports POSIX permissions, a cache directory is created readable and writable by its owner
+ * only, and an existing one is only used if it is a real directory (not a link) owned by the current user.
+ *
+ * @author Eifu Tomita
+ */
+public final class CacheDirectory {
+
+    public static final String LOCATION_KEY = "app.cache.dir";
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private CacheDirectory() {}
+
+    /**
+     * Returns the cache directory with the given name, creating it if needed.
+     *
+     * @param name The name of the cache, e.g., the name of the application.
+     * @return The directory, which exists and is private to the current user.
+     * @throws IOException If the directory could not be created, or is not safe to use.
+     */
+    public static Path get(String name) throws IOException {
+        Path directory = root().resolve(name);
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(directory.getParent());
+            try {
+                if (isPosix(directory.getParent()))
+                    Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+                else
+                    Files.createDirectory(directory);
+            } catch (FileAlreadyExistsException e) {
+                // created concurrently, e.g., by another instance of the application; it is checked below
+            }
+        }
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS))
+            throw new IOException("The cache directory " + directory + " is not a directory.");
+        if (isPosix(directory)) {
+            PosixFileAttributeView view = Files.getFileAttributeView(directory, PosixFileAttributeView.class,
+                                                                     LinkOption.NOFOLLOW_LINKS);
+            if (!view.getOwner().getName().equals(System.getProperty("user.name")))
+                throw new IOException("The cache directory " + directory + " belongs to another user.");
+            Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+            permissions.addAll(view.readAttributes().permissions());
+            if (permissions.retainAll(OWNER_ONLY))
+                view.setPermissions(permissions); // only the owner may write in, or read from, the cache
+        }
+        return directory;
+    }
+
+    private static Path root() {
+        String location = System.getProperty(LOCATION_KEY);
+        if (location != null && !location.isEmpty())
+            return Paths.get(location);
+
+        String home = System.getProperty("user.home");
+        String os   = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        if (os.startsWith("windows")) {
+            String local = System.getenv("LOCALAPPDATA");
+            return local != null && !local.isEmpty() ? Paths.get(local) : Paths.get(home, "AppData", "Local");
+        }
+        if (os.startsWith("mac"))
+            return Paths.get(home, "Library", "Caches");
+        String xdg = System.getenv("XDG_CACHE_HOME");
+        return xdg != null && !xdg.isEmpty() ? Paths.get(xdg) : Paths.get(home, ".cache");
+    }
+
+    private static boolean isPosix(Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+}
@@ -0,0 +1,76 @@
+package apptemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Records how long each phase of the application startup took, from the moment the timer is created to the first
+ * frame on screen. Phases on the FX thread run one after the other and are simply marked as they end; phases run in
+ * the background are timed on their own, since they overlap with the rest. The report is printed only when the system
+ * property {@code startup.timing} is set to {@code true}.
+ *
+ * @author Eifu Tomita
+ */
+public class StartupTimer {
+
+    public static final String ENABLED_KEY = "startup.timing";
+
+    private final long         start   = System.nanoTime();
+    private final List<String> phases  = new ArrayList<>(); // the name of each phase, in the order they ended
+    private final List<long[]> times   = new ArrayList<>(); // when each phase started and ended, in ns since start
+    private long               lastEnd = 0;                 // when the last phase on the FX thread ended
+
+    /**
+     * Marks the end of a phase on the FX thread. The phase is taken to have started where the previous one ended.
+     *
+     * @param phase The name of the phase that just ended.
+     */
+    public synchronized void mark(String phase) {
+        long now = System.nanoTime() - start;
+        phases.add(phase);
+        times.add(new long[]{lastEnd, now});
+        lastEnd = now;
+    }
+
+    /**
+     * Runs and times a phase that overlaps with others, typically on a background thread.
+     *
+     * @param phase The name of the phase.
+     * @param task  The work done in the phase.
+     * @return The result of the task.
+     * @throws CompletionException Wrapping any exception thrown by the task.
+     */
+    public <T> T time(String phase, Callable<T> task) {
+        long from = System.nanoTime() - start;
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+        } finally {
+            long to = System.nanoTime() - start;
+            synchronized (this) {
+                phases.add(phase + " (background)");
+                times.add(new long[]{from, to});
+            }
+        }
+    }
+
+    /** @return One line per phase, with its duration and the time elapsed when it ended. */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder("Startup timing:");
+        for (int i = 0; i < phases.size(); i++) {
+            long[] time = times.get(i);
+            report.append(String.format("%n  %-32s %8.1f ms  (done at %8.1f ms)",
+                                        phases.get(i), (time[1] - time[0]) / 1e6, time[1] / 1e6));
+        }
+        return report.toString();
+    }
+
+    /** Prints the report to standard error, if startup timing was asked for. */
+    public void printReport() {
+        if (Boolean.getBoolean(ENABLED_KEY))
+            System.err.println(report());
+    }
+}
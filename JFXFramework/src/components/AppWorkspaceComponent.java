@@ -53,4 +53,10 @@ public abstract class AppWorkspaceComponent implements AppStyleArbiter {
      * This method is defined completely at the concrete implementation level.
      */
     public abstract void reloadWorkspace();
+
+    /**
+     * Called after the application has switched to another language, so that the workspace can set the text of its
+     * controls from the new properties. The controls themselves are kept as they are. Does nothing by default.
+     */
+    public void relabel() {}
 }
@@ -0,0 +1,128 @@
+package controller;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Saves the application's data in the background every so often, as long as it has changed. Each modification of the
+ * data component only bumps a version counter through {@link #markModified()}, which costs next to nothing, so a burst
+ * of changes, however fast, is coalesced into a single write per interval, and an interval without any change writes
+ * nothing at all.
+ * <p>
+ * The save itself is started on the JavaFX application thread, where the data can be copied safely, and is expected to
+ * do its writing on a background thread of its own, reporting completion through the returned future and any failure
+ * to the user or the log. At most one save is in flight at a time, and a failed save is retried after the next
+ * interval. {@link #stop()} waits for the save in flight, if any, so the data can be torn down right after it.
+ *
+ * @author Eifu Tomita
+ */
+public class AutosaveService {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    }); // decides when every autosave service is due
+
+    private final Supplier<CompletableFuture<?>> save;                          // starts a save of the data
+    private final long                           intervalMillis;                // the least time between two saves
+    private final AtomicLong                     version = new AtomicLong();    // bumped on every modification
+    private final AtomicBoolean                  saving  = new AtomicBoolean(); // whether a save is in flight
+    private volatile long                        savedVersion;                  // the version last saved
+    private volatile CompletableFuture<?>        inFlight;                      // the last save started, if any
+    private volatile boolean                     running;                       // between start() and stop()
+    private ScheduledFuture<?>                   ticks;                         // while the service is started
+
+    /**
+     * Creates a stopped service.
+     *
+     * @param save           Starts a save of the current data and returns its completion; called on the JavaFX
+     *                       application thread.
+     * @param intervalMillis The least time, in milliseconds, between two saves.
+     */
+    public AutosaveService(Supplier<CompletableFuture<?>> save, long intervalMillis) {
+        if (intervalMillis <= 0)
+            throw new IllegalArgumentException("The autosave interval must be positive.");
+        this.save = save;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /** Records that the data changed; it will be saved at the end of the current interval. */
+    public void markModified() {
+        version.incrementAndGet();
+    }
+
+    /** Records that the data has just been saved by other means, e.g., by the user, so there is nothing to autosave. */
+    public void markSaved() {
+        savedVersion = version.get();
+    }
+
+    /** @return Whether the data changed since it was last saved. */
+    public boolean isModified() {
+        return version.get() != savedVersion;
+    }
+
+    public synchronized void start() {
+        running = true;
+        if (ticks == null)
+            ticks = TIMER.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops saving, and waits for a save that is already in flight to complete. Called on the JavaFX application
+     * thread, like the saves themselves, so that no save can start once this returns.
+     */
+    public void stop() {
+        synchronized (this) {
+            running = false;
+            if (ticks != null) {
+                ticks.cancel(false);
+                ticks = null;
+            }
+        }
+        CompletableFuture<?> last = inFlight;
+        if (last != null) {
+            try {
+                last.join();
+            } catch (CompletionException | CancellationException e) {
+                // already reported by the save itself
+            }
+        }
+    }
+
+    private void tick() {
+        if (!isModified() || !saving.compareAndSet(false, true))
+            return;
+        Platform.runLater(() -> {
+            if (!running) { // stopped while this save was waiting for its turn
+                saving.set(false);
+                return;
+            }
+            long                 current = version.get(); // read on the same thread as the data is modified on
+            CompletableFuture<?> completion;
+            try {
+                completion = save.get();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                saving.set(false);
+                return;
+            }
+            inFlight = completion;
+            completion.whenComplete((saved, error) -> {
+                if (error == null)
+                    savedVersion = current;
+                saving.set(false);
+            });
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package propertymanager;
+
+import apptemplate.CacheDirectory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of the properties resolved from a property file, kept in a compact binary snapshot so that later launches
+ * can skip parsing and validating the file. Each snapshot is named after a SHA-256 hash of the contents of the property
+ * file and of its schema, so editing either file simply leads to a different snapshot, and a stale one is never read.
+ * A snapshot holds a magic number, the format version, that hash, the number of properties followed by the name and
+ * value of each, and then the number of option lists followed by the name and options of each. A snapshot whose hash
+ * does not match the files being loaded is ignored.
+ * <p>
+ * The snapshots are kept in the current user's own cache directory (see {@link CacheDirectory}), which no other user
+ * can write to, so a snapshot is never planted by someone else.
+ * <p>
+ * The cache is only an optimization: if a snapshot cannot be read or written, the property file is parsed as usual.
+ * Setting the system property {@code propertymanager.cache} to {@code false} turns the cache off.
+ *
+ * @author Eifu Tomita
+ */
+class PropertyCache {
+
+    private static final int    MAGIC       = 0x50524f50; // "PROP"
+    private static final int    VERSION     = 2;
+    private static final String ENABLED_KEY = "propertymanager.cache";
+    private static final String CACHE_NAME  = "jfx-property-cache";
+
+    private PropertyCache() {}
+
+    static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(ENABLED_KEY));
+    }
+
+    /**
+     * @param xml    The contents of a property file.
+     * @param schema The contents of the schema it is validated against.
+     * @return The hash that identifies the snapshot of the given property file.
+     */
+    static byte[] hash(byte[] xml, byte[] schema) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((byte) VERSION);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(xml.length).array());
+            digest.update(xml);
+            digest.update(schema);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * @param hash The hash of a property file and its schema.
+     * @return Where the snapshot of that property file is kept, or {@code null} if there is no safe place for it.
+     */
+    static Path locate(byte[] hash) {
+        try {
+            StringBuilder name = new StringBuilder(72);
+            for (byte b : hash)
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return CacheDirectory.get(CACHE_NAME).resolve(name.append(".bin").toString());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a snapshot with a single read of the file.
+     *
+     * @param hash The hash of the property file and schema being loaded.
+     * @return {@code true} if the snapshot was found, was made from that very property file, and was read into the
+     * given maps.
+     */
+    static boolean read(Path snapshot, byte[] hash, Map<String, String> properties, Map<String, List<String>> options) {
+        if (!Files.isRegularFile(snapshot, LinkOption.NOFOLLOW_LINKS))
+            return false;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(snapshot)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return false;
+            byte[] recorded = new byte[hash.length];
+            in.readFully(recorded);
+            if (!MessageDigest.isEqual(recorded, hash))
+                return false;
+            for (int i = in.readInt(); i > 0; i--)
+                properties.put(in.readUTF(), in.readUTF());
+            for (int i = in.readInt(); i > 0; i--) {
+                String       name = in.readUTF();
+                int          size = in.readInt();
+                List<String> list = new ArrayList<>(size);
+                for (int j = 0; j < size; j++)
+                    list.add(in.readUTF());
+                options.put(name, list);
+            }
+            return true;
+        } catch (IOException e) {
+            properties.clear();
+            options.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Writes a snapshot. It is first written to a temporary file and then moved into place, so that another instance
+     * of the application never reads a half-written snapshot. Failures are ignored.
+     */
+    static void write(Path snapshot, byte[] hash, Map<String, String> properties, Map<String, List<String>> options) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(hash);
+                out.writeInt(properties.size());
+                for (Map.Entry<String, String> property : properties.entrySet()) {
+                    out.writeUTF(property.getKey());
+                    out.writeUTF(property.getValue());
+                }
+                out.writeInt(options.size());
+                for (Map.Entry<String, List<String>> list : options.entrySet()) {
+                    out.writeUTF(list.getKey());
+                    out.writeInt(list.getValue().size());
+                    for (String option : list.getValue())
+                        out.writeUTF(option);
+                }
+            }
+            Path temporary = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the cache is only an optimization; the property file is simply parsed again next time
+        }
+    }
+}
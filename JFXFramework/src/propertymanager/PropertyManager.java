@@ -1,19 +1,20 @@
 package propertymanager;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
 import xmlutils.InvalidXMLFileFormatException;
+import xmlutils.XMLElementHandler;
 import xmlutils.XMLUtilities;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.ArrayList;
-//import java.util.;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Ritwik Banerjee
@@ -22,10 +23,10 @@ public class PropertyManager {
 
     private static final XMLUtilities xmlUtilities = new XMLUtilities();
 
-    private static PropertyManager singleton = null;
+    private static volatile PropertyManager singleton = null;
 
-    private Map<String, String> properties;
-    private Map<String, List<String>> propertyOptions;
+    // The properties currently in effect; readers never lock, writers build a new snapshot and swap it in
+    private final AtomicReference<PropertySnapshot> snapshot = new AtomicReference<>(PropertySnapshot.EMPTY);
 
     // Constants critical to the loading of elements and their attributes from the XML files
     public static final String PROPERTY_ELEMENT              = "property";
@@ -39,79 +40,147 @@ public class PropertyManager {
     // Location of the properties resources, relative to the root resource folder for the application
     public static final String PROPERTIES_RESOURCE_RELATIVE_PATH = "properties";
 
-    private PropertyManager() {
-        properties = new HashMap<>();
-        propertyOptions = new HashMap<>();
-    }
+    private PropertyManager() {}
 
     public static PropertyManager getManager() {
-        if (singleton == null)
-            singleton = new PropertyManager();
-        return singleton;
+        PropertyManager manager = singleton;
+        if (manager == null) {
+            synchronized (PropertyManager.class) {
+                manager = singleton;
+                if (manager == null)
+                    singleton = manager = new PropertyManager();
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * Accessor for the properties currently in effect. A caller that needs several values that must agree with each
+     * other (e.g., all the labels of one dialog) should read them from a single snapshot.
+     *
+     * @return The current snapshot, which never changes.
+     */
+    public PropertySnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Replaces all the properties at once, e.g., to switch to another language. Threads reading properties see either
+     * the old snapshot or the new one, never a mix of the two.
+     *
+     * @param properties The new properties.
+     */
+    public void publish(PropertySnapshot properties) {
+        snapshot.set(properties);
     }
 
     public void addProperty(String property, String value) {
-        properties.put(property, value);
+        snapshot.updateAndGet(current -> current.withProperty(property, value));
     }
 
     public String getPropertyValue(String property) {
-        return properties.get(property);
+        return snapshot.get().getPropertyValue(property);
     }
 
     public String getPropertyValue(Object property) {
-        return properties.get(property.toString());
+        return snapshot.get().getPropertyValue(property);
+    }
+
+    /** @see PropertySnapshot#getInt(Enum) */
+    public int getInt(Enum<?> property) {
+        return snapshot.get().getInt(property);
     }
 
     public void addPropertyOption(String property, String option) {
-        if (properties.get(property) == null)
-            throw new NoSuchElementException(String.format("Property \"%s\" does not exist.", property));
-        List<String> propertyoptionslist = propertyOptions.get(property);
-        if (propertyoptionslist == null)
-            propertyoptionslist = new ArrayList<>();
-        propertyoptionslist.add(option);
-        propertyOptions.put(property, propertyoptionslist);
+        snapshot.updateAndGet(current -> current.withPropertyOption(property, option));
     }
-    
+
     public List<String> getPropertyOptions(String property) {
-        if (properties.get(property) == null)
-            throw new NoSuchElementException(String.format("Property \"%s\" does not exist.", property));
-        return propertyOptions.get(property);
+        return snapshot.get().getPropertyOptions(property);
     }
 
     public boolean hasProperty(Object property) {
-        return properties.get(property.toString()) != null;
+        return snapshot.get().hasProperty(property);
     }
-    
+
+    /**
+     * Loads the properties and property options in the given file, validating it against the given schema as it is
+     * read. The file is streamed rather than loaded into a DOM tree, so it is read in a single pass and in bounded
+     * memory. What was read is then kept in a binary snapshot (see {@link PropertyCache}), so later launches load the
+     * same file with a single read and no parsing at all, until the file or the schema changes.
+     */
     public void loadProperties(Class klass, String xmlfilename, String schemafilename) throws InvalidXMLFileFormatException {
-        URL             xmlFileResource    = klass.getClassLoader().getResource(PROPERTIES_RESOURCE_RELATIVE_PATH + File.separator + xmlfilename);
-        URL             schemaFileResource = klass.getClassLoader().getResource(PROPERTIES_RESOURCE_RELATIVE_PATH + File.separator + schemafilename);
-        Document        document           = xmlUtilities.loadXMLDocument(xmlFileResource, schemaFileResource);
-        Node            propertyListNode   = xmlUtilities.getNodeWithName(document, PROPERTY_LIST_ELEMENT);
-        ArrayList<Node> propNodes          = xmlUtilities.getChildNodesWithName(propertyListNode, PROPERTY_ELEMENT);
-        for (Node n : propNodes) {
-            NamedNodeMap attributes = n.getAttributes();
-            for (int i = 0; i < attributes.getLength(); i++) {
-                String attName  = attributes.getNamedItem(NAME_ATTRIBUTE).getTextContent();
-                String attValue = attributes.getNamedItem(VALUE_ATTRIBUTE).getTextContent();
-                properties.put(attName, attValue);
+        PropertySnapshot loaded = readProperties(klass, xmlfilename, schemafilename);
+        snapshot.updateAndGet(current -> current.merge(loaded));
+    }
+
+    /**
+     * Reads the properties and property options in the given file, as {@link #loadProperties} does, but without
+     * publishing them. The result can be merged with other files and then published all at once.
+     *
+     * @return The properties and options found in the file.
+     */
+    public PropertySnapshot readProperties(Class klass, String xmlfilename, String schemafilename) throws InvalidXMLFileFormatException {
+        // class loader resource names always use '/', whatever the platform, and whether or not they are in a jar
+        URL xmlFileResource    = klass.getClassLoader().getResource(PROPERTIES_RESOURCE_RELATIVE_PATH + "/" + xmlfilename);
+        URL schemaFileResource = klass.getClassLoader().getResource(PROPERTIES_RESOURCE_RELATIVE_PATH + "/" + schemafilename);
+
+        Map<String, String>       loadedProperties = new HashMap<>();
+        Map<String, List<String>> loadedOptions    = new HashMap<>();
+        Path                      cached           = null;
+        byte[]                    hash             = null;
+        if (PropertyCache.isEnabled() && xmlFileResource != null && schemaFileResource != null) {
+            try {
+                hash = PropertyCache.hash(readResource(xmlFileResource), readResource(schemaFileResource));
+                cached = PropertyCache.locate(hash);
+            } catch (IOException e) {
+                throw new InvalidXMLFileFormatException(xmlFileResource.getFile());
             }
         }
-        
-        // AND THE PROPERTIES FROM OPTION LISTS
-        Node propertyOptionsListNode = xmlUtilities.getNodeWithName(document, PROPERTY_OPTIONS_LIST_ELEMENT);
-        if (propertyOptionsListNode != null) {
-            ArrayList<Node> propertyOptionsNodes = xmlUtilities.getChildNodesWithName(propertyOptionsListNode, PROPERTY_OPTIONS_ELEMENT);
-            for (Node n : propertyOptionsNodes) {
-                NamedNodeMap      attributes = n.getAttributes();
-                String            name       = attributes.getNamedItem(NAME_ATTRIBUTE).getNodeValue();
-                ArrayList<String> options    = new ArrayList<>();
-                propertyOptions.put(name, options);
-                ArrayList<Node> optionsNodes = xmlUtilities.getChildNodesWithName(n, OPTION_ELEMENT);
-                for (Node oNode : optionsNodes) {
-                    String option = oNode.getTextContent();
-                    options.add(option);
+        if (cached == null || !PropertyCache.read(cached, hash, loadedProperties, loadedOptions)) {
+            parseProperties(xmlFileResource, schemaFileResource, loadedProperties, loadedOptions);
+            if (cached != null)
+                PropertyCache.write(cached, hash, loadedProperties, loadedOptions);
+        }
+        return PropertySnapshot.of(loadedProperties, loadedOptions);
+    }
+
+    private static void parseProperties(URL xmlFileResource, URL schemaFileResource, Map<String, String> properties,
+                                        Map<String, List<String>> propertyOptions) throws InvalidXMLFileFormatException {
+        xmlUtilities.streamXMLDocument(xmlFileResource, schemaFileResource, new XMLElementHandler() {
+            private List<String> options; // the option list being filled in, if any
+
+            @Override
+            public void startElement(String name, Attributes attributes) {
+                switch (name) {
+                    case PROPERTY_ELEMENT:
+                        properties.put(attributes.getValue(NAME_ATTRIBUTE), attributes.getValue(VALUE_ATTRIBUTE));
+                        break;
+                    case PROPERTY_OPTIONS_ELEMENT:
+                        options = new ArrayList<>();
+                        propertyOptions.put(attributes.getValue(NAME_ATTRIBUTE), options);
+                        break;
                 }
             }
+
+            @Override
+            public void endElement(String name, String text) {
+                if (OPTION_ELEMENT.equals(name) && options != null)
+                    options.add(text);
+                else if (PROPERTY_OPTIONS_ELEMENT.equals(name))
+                    options = null;
+            }
+        });
+    }
+
+    private static byte[] readResource(URL resource) throws IOException {
+        try (InputStream in = resource.openStream()) {
+            ByteArrayOutputStream out    = new ByteArrayOutputStream(8192);
+            byte[]                buffer = new byte[8192];
+            int                   read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toByteArray();
         }
     }
 }
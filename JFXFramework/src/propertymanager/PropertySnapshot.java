@@ -0,0 +1,173 @@
+package propertymanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable set of properties and property options. The {@link PropertyManager} publishes one snapshot at a time;
+ * a reader that holds on to a snapshot sees a consistent set of values, even while a new one is being loaded, and any
+ * number of threads may read a snapshot without locking.
+ * <p>
+ * Snapshots are never modified: adding to or merging snapshots yields a new snapshot.
+ *
+ * @author Eifu Tomita
+ */
+public final class PropertySnapshot {
+
+    public static final PropertySnapshot EMPTY = new PropertySnapshot(Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, String>                properties;
+    private final Map<String, List<String>>          propertyOptions;
+    private final ConcurrentMap<Class<?>, EnumTable> enumTables = new ConcurrentHashMap<>(); // resolved on first use
+
+    private PropertySnapshot(Map<String, String> properties, Map<String, List<String>> propertyOptions) {
+        this.properties = properties;
+        this.propertyOptions = propertyOptions;
+    }
+
+    /**
+     * Creates a snapshot holding copies of the given properties and options.
+     *
+     * @param properties      The value of each property.
+     * @param propertyOptions The options of each property that has any.
+     * @return The snapshot.
+     */
+    public static PropertySnapshot of(Map<String, String> properties, Map<String, List<String>> propertyOptions) {
+        Map<String, List<String>> options = new HashMap<>(propertyOptions.size() * 2);
+        for (Map.Entry<String, List<String>> entry : propertyOptions.entrySet())
+            options.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        return new PropertySnapshot(Collections.unmodifiableMap(new HashMap<>(properties)),
+                                    Collections.unmodifiableMap(options));
+    }
+
+    /**
+     * Combines two snapshots. Where both define a property, or options for the same property, the given snapshot wins.
+     *
+     * @param other The snapshot to lay over this one.
+     * @return A new snapshot with the properties and options of both.
+     */
+    public PropertySnapshot merge(PropertySnapshot other) {
+        Map<String, String> mergedProperties = new HashMap<>(properties);
+        mergedProperties.putAll(other.properties);
+        Map<String, List<String>> mergedOptions = new HashMap<>(propertyOptions);
+        mergedOptions.putAll(other.propertyOptions);
+        return new PropertySnapshot(Collections.unmodifiableMap(mergedProperties),
+                                    Collections.unmodifiableMap(mergedOptions));
+    }
+
+    /** @return A new snapshot in which the given property has the given value. */
+    public PropertySnapshot withProperty(String property, String value) {
+        Map<String, String> updated = new HashMap<>(properties);
+        updated.put(property, value);
+        return new PropertySnapshot(Collections.unmodifiableMap(updated), propertyOptions);
+    }
+
+    /** @return A new snapshot in which the given option is appended to the options of the given property. */
+    public PropertySnapshot withPropertyOption(String property, String option) {
+        if (properties.get(property) == null)
+            throw new NoSuchElementException(String.format("Property \"%s\" does not exist.", property));
+        List<String> options = new ArrayList<>();
+        if (propertyOptions.get(property) != null)
+            options.addAll(propertyOptions.get(property));
+        options.add(option);
+        Map<String, List<String>> updated = new HashMap<>(propertyOptions);
+        updated.put(property, Collections.unmodifiableList(options));
+        return new PropertySnapshot(properties, Collections.unmodifiableMap(updated));
+    }
+
+    /** @return An unmodifiable view of the value of every property. */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /** @return An unmodifiable view of the options of every property that has any. */
+    public Map<String, List<String>> getPropertyOptions() {
+        return propertyOptions;
+    }
+
+    public String getPropertyValue(String property) {
+        return properties.get(property);
+    }
+
+    public String getPropertyValue(Object property) {
+        if (property instanceof Enum)
+            return getEnumTable((Enum<?>) property).values[((Enum<?>) property).ordinal()];
+        return properties.get(property.toString());
+    }
+
+    /**
+     * Accessor for a property whose value is an integer, such as the window dimensions. The value is parsed once, when
+     * the properties for the enum of the given key are first resolved, rather than on every call.
+     *
+     * @param property The key of the property.
+     * @return The value of the property, as an int.
+     * @throws NoSuchElementException If there is no such property.
+     * @throws NumberFormatException  If the value of the property is not an integer.
+     */
+    public int getInt(Enum<?> property) {
+        EnumTable table   = getEnumTable(property);
+        int       ordinal = property.ordinal();
+        if (table.values[ordinal] == null)
+            throw new NoSuchElementException(String.format("Property \"%s\" does not exist.", property));
+        if (!table.isInt[ordinal])
+            throw new NumberFormatException(String.format("Property \"%s\" is not an integer.", property));
+        return table.ints[ordinal];
+    }
+
+    public List<String> getPropertyOptions(String property) {
+        if (properties.get(property) == null)
+            throw new NoSuchElementException(String.format("Property \"%s\" does not exist.", property));
+        return propertyOptions.get(property);
+    }
+
+    public boolean hasProperty(Object property) {
+        return getPropertyValue(property) != null;
+    }
+
+    /**
+     * The values of all the properties keyed by the constants of one enum (e.g., AppPropertyType), laid out by ordinal,
+     * so that looking up an enum key is an array access instead of a string hash lookup.
+     */
+    private static class EnumTable {
+        final String[]  values; // values[k.ordinal()] is the value of key k, or null if there is none
+        final int[]     ints;   // ints[k.ordinal()] is that value parsed as an int, if isInt[k.ordinal()]
+        final boolean[] isInt;
+
+        EnumTable(Class<?> keys, Map<String, String> properties) {
+            Object[] constants = keys.getEnumConstants();
+            values = new String[constants.length];
+            ints = new int[constants.length];
+            isInt = new boolean[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                values[i] = properties.get(constants[i].toString());
+                if (values[i] != null) {
+                    try {
+                        ints[i] = Integer.parseInt(values[i].trim());
+                        isInt[i] = true;
+                    } catch (NumberFormatException e) {
+                        // not every property is a number
+                    }
+                }
+            }
+        }
+    }
+
+    private EnumTable getEnumTable(Enum<?> property) {
+        Class<?>  keys  = property.getDeclaringClass();
+        EnumTable table = enumTables.get(keys);
+        if (table == null) {
+            // two threads may build the same table at once, but they build identical ones
+            table = new EnumTable(keys, properties);
+            EnumTable existing = enumTables.putIfAbsent(keys, table);
+            if (existing != null)
+                table = existing;
+        }
+        return table;
+    }
+}
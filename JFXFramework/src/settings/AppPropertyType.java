@@ -29,15 +29,21 @@ public enum AppPropertyType {
     SAVE_TOOLTIP,
     LOAD_TOOLTIP,
     EXIT_TOOLTIP,
+    LANGUAGE_TOOLTIP,
+
+    // LABELS
+    LANGUAGE_BUTTON_TEXT,
 
     // ERROR MESSAGES
     NEW_ERROR_MESSAGE,
     SAVE_ERROR_MESSAGE,
+    LOAD_ERROR_MESSAGE,
     PROPERTIES_LOAD_ERROR_MESSAGE,
 
     // ERROR TITLES
     NEW_ERROR_TITLE,
     SAVE_ERROR_TITLE,
+    LOAD_ERROR_TITLE,
     PROPERTIES_LOAD_ERROR_TITLE,
 
     // AND VERIFICATION MESSAGES AND TITLES
@@ -45,11 +51,19 @@ public enum AppPropertyType {
     SAVE_COMPLETED_TITLE,
     SAVE_UNSAVED_WORK_TITLE,
     SAVE_UNSAVED_WORK_MESSAGE,
+    RECOVER_GAME_TITLE,
+    RECOVER_GAME_MESSAGE,
 
     SAVE_WORK_TITLE,
     LOAD_WORK_TITLE,
     WORK_FILE_EXT,
     WORK_FILE_EXT_DESC,
+    BINARY_WORK_FILE_EXT_DESC,
+    ARCHIVE_FILE_EXT_DESC,
+    ARCHIVE_ENTRY_FORMAT,
+    ARCHIVE_STATUS_IN_PROGRESS,
+    ARCHIVE_STATUS_WON,
+    ARCHIVE_STATUS_LOST,
     LOAD_COMPLETED_MESSAGE,
     LOAD_COMPLETED_TITLE,
 
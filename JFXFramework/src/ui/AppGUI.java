@@ -14,19 +14,12 @@ import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import propertymanager.PropertyManager;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 import static settings.AppPropertyType.*;
-import static settings.InitializationParameters.APP_IMAGEDIR_PATH;
 
 /**
  * This class provides the basic user interface for this application, including all the file controls, but it does not
@@ -45,6 +38,7 @@ public class AppGUI implements AppStyleArbiter {
     protected Button         saveButton;       // button to save progress on application
     protected Button         loadButton;       // button to load a saved game from (json) file
     protected Button         exitButton;       // button to exit application
+    protected Button         languageButton;   // button to switch to another language
     protected String         applicationTitle; // the application title
 
     private int appWindowWidth;  // optional parameter for window width that can be set by the application
@@ -106,6 +100,9 @@ public class AppGUI implements AppStyleArbiter {
         newButton = initializeChildButton(toolbarPane, NEW_ICON.toString(), NEW_TOOLTIP.toString(), false);
         loadButton = initializeChildButton(toolbarPane, LOAD_ICON.toString(), LOAD_TOOLTIP.toString(), false);
         saveButton = initializeChildButton(toolbarPane, SAVE_ICON.toString(), SAVE_TOOLTIP.toString(), true);
+        languageButton = new Button(PropertyManager.getManager().getPropertyValue(LANGUAGE_BUTTON_TEXT));
+        languageButton.setTooltip(new Tooltip(PropertyManager.getManager().getPropertyValue(LANGUAGE_TOOLTIP)));
+        toolbarPane.getChildren().add(languageButton);
         exitButton = initializeChildButton(toolbarPane, EXIT_ICON.toString(), EXIT_TOOLTIP.toString(), false);
     }
 
@@ -127,7 +124,9 @@ public class AppGUI implements AppStyleArbiter {
                 fileController.handleSaveRequest();
             } catch (IOException e1) {
                 e1.printStackTrace();
-                System.exit(1);
+                PropertyManager props = PropertyManager.getManager();
+                AppMessageDialogSingleton.getSingleton().show(props.getPropertyValue(SAVE_ERROR_TITLE),
+                                                              props.getPropertyValue(SAVE_ERROR_MESSAGE));
             }
         });
         loadButton.setOnAction(e -> {
@@ -138,6 +137,27 @@ public class AppGUI implements AppStyleArbiter {
             }
         });
         exitButton.setOnAction(e -> fileController.handleExitRequest());
+        languageButton.setOnAction(e -> {
+            LanguageDialogSingleton languageDialog = LanguageDialogSingleton.getSingleton();
+            languageDialog.show("Language", "which one to choose?");
+            app.switchLanguage(languageDialog.getSelection());
+        });
+    }
+
+    /**
+     * Sets the window title and the tooltips of the toolbar from the current properties, after the application has
+     * switched to another language. The controls themselves are left in place.
+     */
+    public void relabel() {
+        PropertyManager propertyManager = PropertyManager.getManager();
+        applicationTitle = propertyManager.getPropertyValue(APP_TITLE);
+        primaryStage.setTitle(applicationTitle);
+        newButton.getTooltip().setText(propertyManager.getPropertyValue(NEW_TOOLTIP));
+        loadButton.getTooltip().setText(propertyManager.getPropertyValue(LOAD_TOOLTIP));
+        saveButton.getTooltip().setText(propertyManager.getPropertyValue(SAVE_TOOLTIP));
+        exitButton.getTooltip().setText(propertyManager.getPropertyValue(EXIT_TOOLTIP));
+        languageButton.setText(propertyManager.getPropertyValue(LANGUAGE_BUTTON_TEXT));
+        languageButton.getTooltip().setText(propertyManager.getPropertyValue(LANGUAGE_TOOLTIP));
     }
 
     public void updateWorkspaceToolbar(boolean savable) {
@@ -160,14 +180,7 @@ public class AppGUI implements AppStyleArbiter {
                                                                              appWindowWidth,
                                                                              appWindowHeight);
 
-        URL imgDirURL = AppTemplate.class.getClassLoader().getResource(APP_IMAGEDIR_PATH.getParameter());
-        if (imgDirURL == null)
-            throw new FileNotFoundException("Image resrouces folder does not exist.");
-        try (InputStream appLogoStream = Files.newInputStream(Paths.get(imgDirURL.toURI()).resolve(propertyManager.getPropertyValue(APP_LOGO)))) {
-            primaryStage.getIcons().add(new Image(appLogoStream));
-        } catch (URISyntaxException e) {
-            e.printStackTrace();
-        }
+        primaryStage.getIcons().add(ImageCache.getSingleton().getImage(propertyManager.getPropertyValue(APP_LOGO)));
 
         primaryStage.setScene(primaryScene);
         primaryStage.show();
@@ -187,26 +200,17 @@ public class AppGUI implements AppStyleArbiter {
     public Button initializeChildButton(Pane toolbarPane, String icon, String tooltip, boolean disabled) throws IOException {
         PropertyManager propertyManager = PropertyManager.getManager();
 
-        URL imgDirURL = AppTemplate.class.getClassLoader().getResource(APP_IMAGEDIR_PATH.getParameter());
-        if (imgDirURL == null)
-            throw new FileNotFoundException("Image resources folder does not exist.");
-
-        Button button = new Button();
-        try (InputStream imgInputStream = Files.newInputStream(Paths.get(imgDirURL.toURI()).resolve(propertyManager.getPropertyValue(icon)))) {
-            Image buttonImage = new Image(imgInputStream);
-            button.setDisable(disabled);
-            button.setGraphic(new ImageView(buttonImage));
-            Tooltip buttonTooltip = new Tooltip(propertyManager.getPropertyValue(tooltip));
-            button.setTooltip(buttonTooltip);
-            toolbarPane.getChildren().add(button);
-        } catch (URISyntaxException e) {
-            e.printStackTrace();
-            System.exit(1);
-        }
+        Button button      = new Button();
+        Image  buttonImage = ImageCache.getSingleton().getImage(propertyManager.getPropertyValue(icon));
+        button.setDisable(disabled);
+        button.setGraphic(new ImageView(buttonImage));
+        Tooltip buttonTooltip = new Tooltip(propertyManager.getPropertyValue(tooltip));
+        button.setTooltip(buttonTooltip);
+        toolbarPane.getChildren().add(button);
 
         return button;
     }
-    
+
     /**
      * This function specifies the CSS style classes for the controls managed
      * by this framework.
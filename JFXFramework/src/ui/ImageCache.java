@@ -0,0 +1,78 @@
+package ui;
+
+import apptemplate.AppTemplate;
+import javafx.scene.image.Image;
+
+import java.io.FileNotFoundException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static settings.InitializationParameters.APP_IMAGEDIR_PATH;
+
+/**
+ * This class keeps every image used by the application, so that each image file is decoded only once and the same
+ * {@link Image} is handed to every control that shows it. Images are looked up through the class loader, which works
+ * whether the resources are in a folder or packaged in a jar, and are decoded by JavaFX in the background: an image
+ * can be put on screen right away, and appears as soon as it is ready.
+ *
+ * @author Eifu Tomita
+ */
+public class ImageCache {
+
+    private static ImageCache singleton = null;
+
+    private final ConcurrentMap<String, Image> images = new ConcurrentHashMap<>(); // keyed by file name
+
+    private ImageCache() {}
+
+    /**
+     * A static accessor method for getting the singleton object.
+     *
+     * @return The one image cache of the application.
+     */
+    public static synchronized ImageCache getSingleton() {
+        if (singleton == null)
+            singleton = new ImageCache();
+        return singleton;
+    }
+
+    /**
+     * Accessor for an image in the images folder of the application. The image is decoded the first time it is asked
+     * for, in the background; every later call returns the same image.
+     *
+     * @param fileName The name of the image file.
+     * @return The image, which may still be loading.
+     * @throws FileNotFoundException If there is no such image.
+     */
+    public Image getImage(String fileName) throws FileNotFoundException {
+        Image image = images.get(fileName);
+        if (image == null) {
+            URL imageURL = AppTemplate.class.getClassLoader().getResource(APP_IMAGEDIR_PATH.getParameter() + "/" + fileName);
+            if (imageURL == null)
+                throw new FileNotFoundException(String.format("Image \"%s\" does not exist.", fileName));
+            image = new Image(imageURL.toExternalForm(), true);
+            Image existing = images.putIfAbsent(fileName, image);
+            if (existing != null)
+                image = existing;
+        }
+        return image;
+    }
+
+    /**
+     * Starts decoding the given images, so that they are ready, or nearly so, by the time they are shown. Images that
+     * cannot be found are skipped here, and reported when they are asked for.
+     *
+     * @param fileNames The names of the image files.
+     */
+    public void preload(String... fileNames) {
+        for (String fileName : fileNames) {
+            try {
+                if (fileName != null)
+                    getImage(fileName);
+            } catch (FileNotFoundException e) {
+                // reported by getImage when the image is actually needed
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package xmlutils;
+
+import org.xml.sax.Attributes;
+
+/**
+ * Receives the elements of an XML document, in document order, as it is
+ * streamed by {@link XMLUtilities#streamXMLDocument}. No tree is built, so
+ * a handler should copy out whatever it needs before returning.
+ *
+ * @author Eifu Tomita
+ */
+public interface XMLElementHandler {
+
+    /**
+     * Called when an element is opened.
+     *
+     * @param name       The local name of the element.
+     * @param attributes The attributes of the element, valid only for the
+     *                   duration of this call.
+     */
+    void startElement(String name, Attributes attributes);
+
+    /**
+     * Called when an element is closed.
+     *
+     * @param name The local name of the element.
+     * @param text The text inside the element, or the empty string if there
+     *             was none. Only meaningful for elements that contain text
+     *             alone, such as option elements in property files.
+     */
+    void endElement(String name, String text);
+}
@@ -3,11 +3,17 @@ package xmlutils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
@@ -15,8 +21,13 @@ import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class provides general purpose utilities for the loading and
@@ -34,6 +45,32 @@ public class XMLUtilities {
     // THIS REFERENCES A STANDARD SCHEMA FORMAT. NOTE THIS IS NOT THE SCHEMA
     public static final String SCHEMA_STANDARD_SPEC_URL = "http://www.w3.org/2001/XMLSchema";
 
+    // COMPILED SCHEMAS ARE IMMUTABLE AND THREAD-SAFE, SO EACH ONE IS COMPILED
+    // ONCE PER JVM. VALIDATORS AND DOCUMENT BUILDERS ARE NOT THREAD-SAFE, SO
+    // THEY ARE POOLED, AND A THREAD BORROWS ONE FOR THE DURATION OF A CALL.
+    private static final ConcurrentMap<String, Schema>                 schemas                  = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Queue<Validator>>       validatorPools           = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Queue<DocumentBuilder>> documentBuilderPools     = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, DocumentBuilderFactory> documentBuilderFactories = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Queue<SAXParser>>       saxParserPools           = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, SAXParserFactory>       saxParserFactories       = new ConcurrentHashMap<>();
+
+    // REPORTS EVERY VALIDATION ERROR AS AN EXCEPTION, INSTEAD OF JUST PRINTING IT
+    private static final ErrorHandler STRICT_ERROR_HANDLER = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) { }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+    };
+
     /**
      * Default Constructor, no data needs to be initialized.
      */
@@ -81,18 +118,208 @@ public class XMLUtilities {
         }
     }
 
+    /**
+     * This method validates the XML document at datapath against the schema at schemapath. The schema is compiled only
+     * the first time it is used, and validators are reused across calls, so it is cheap to call this method repeatedly
+     * and from several threads.
+     *
+     * @param datapath   XML Doc to validate
+     * @param schemapath XML Schema to use in validation
+     * @return true if the xml doc is valid, false if it is not.
+     */
     public boolean validateXML(URL datapath, URL schemapath) {
-        SchemaFactory schemaFactory = SchemaFactory.newInstance(SCHEMA_STANDARD_SPEC_URL);
-        try {
-            Schema    schema    = schemaFactory.newSchema(schemapath);
-            Validator validator = schema.newValidator();
-            Source    source    = new StreamSource(datapath.openStream());
-            validator.validate(source);
+        Validator validator = null;
+        try (InputStream in = datapath.openStream()) {
+            validator = borrowValidator(schemapath);
+            validator.validate(new StreamSource(in));
             return true;
         } catch (SAXException | IOException e) {
             return false;
+        } finally {
+            if (validator != null)
+                returnValidator(schemapath, validator);
+        }
+    }
+
+    /**
+     * Returns the compiled form of the schema at the given location, compiling it if this is the first time it is
+     * asked for. Compiled schemas are thread-safe and are shared by the whole application.
+     *
+     * @param schemaURL The location of the schema.
+     * @return The compiled schema.
+     * @throws SAXException Thrown if the schema cannot be compiled.
+     */
+    public Schema getSchema(URL schemaURL) throws SAXException {
+        String key    = schemaURL.toExternalForm();
+        Schema schema = schemas.get(key);
+        if (schema == null) {
+            // SchemaFactory IS NOT THREAD-SAFE, SO EACH COMPILATION GETS ITS OWN
+            schema = SchemaFactory.newInstance(SCHEMA_STANDARD_SPEC_URL).newSchema(schemaURL);
+            Schema existing = schemas.putIfAbsent(key, schema);
+            if (existing != null)
+                schema = existing;
+        }
+        return schema;
+    }
+
+    private Validator borrowValidator(URL schemaURL) throws SAXException {
+        Validator validator = pool(validatorPools, schemaURL.toExternalForm()).poll();
+        if (validator == null) {
+            validator = getSchema(schemaURL).newValidator();
+            validator.setErrorHandler(STRICT_ERROR_HANDLER);
+        }
+        return validator;
+    }
+
+    private void returnValidator(URL schemaURL, Validator validator) {
+        validator.reset();
+        validator.setErrorHandler(STRICT_ERROR_HANDLER);
+        pool(validatorPools, schemaURL.toExternalForm()).offer(validator);
+    }
+
+    /**
+     * Borrows a document builder that validates against the given schema while it parses, or that does not validate at
+     * all if the schema is null. Every builder borrowed this way must be handed back with
+     * {@link #returnDocumentBuilder(URL, DocumentBuilder)}.
+     */
+    private DocumentBuilder borrowDocumentBuilder(URL schemaURL) throws SAXException, ParserConfigurationException {
+        String          key     = schemaURL == null ? "" : schemaURL.toExternalForm();
+        DocumentBuilder builder = pool(documentBuilderPools, key).poll();
+        if (builder == null) {
+            DocumentBuilderFactory factory = documentBuilderFactories.get(key);
+            if (factory == null) {
+                factory = DocumentBuilderFactory.newInstance();
+                if (schemaURL != null) {
+                    factory.setNamespaceAware(true);
+                    factory.setSchema(getSchema(schemaURL));
+                }
+                DocumentBuilderFactory existing = documentBuilderFactories.putIfAbsent(key, factory);
+                if (existing != null)
+                    factory = existing;
+            }
+            // DocumentBuilderFactory IS NOT THREAD-SAFE EITHER
+            synchronized (factory) {
+                builder = factory.newDocumentBuilder();
+            }
+        }
+        builder.setErrorHandler(STRICT_ERROR_HANDLER);
+        return builder;
+    }
+
+    private void returnDocumentBuilder(URL schemaURL, DocumentBuilder builder) {
+        builder.reset();
+        pool(documentBuilderPools, schemaURL == null ? "" : schemaURL.toExternalForm()).offer(builder);
+    }
+
+    /**
+     * This method streams the XML document at xmlFileURL through the given
+     * handler, one element at a time, validating it against the schema at
+     * schemaFileURL in the same pass. Unlike loadXMLDocument, no DOM tree is
+     * built, so the memory used does not grow with the size of the document.
+     * Note that the handler may already have received some elements by the
+     * time a validation error is found.
+     *
+     * @param xmlFileURL    Location of the xml file to stream.
+     * @param schemaFileURL Location of the schema file to use for validation,
+     *                      or null to skip validation.
+     * @param handler       Receives the elements of the document.
+     * @throws InvalidXMLFileFormatException Thrown if the xml file cannot be
+     *                                       read or does not validate.
+     */
+    public void streamXMLDocument(URL xmlFileURL, URL schemaFileURL, XMLElementHandler handler)
+            throws InvalidXMLFileFormatException {
+        SAXParser parser = null;
+        try (InputStream in = xmlFileURL.openStream()) {
+            parser = borrowSAXParser(schemaFileURL);
+            parser.parse(in, new StreamingHandler(handler));
+        } catch (SAXException e) {
+            throw new InvalidXMLFileFormatException(xmlFileURL.getFile(),
+                                                    schemaFileURL == null ? null : schemaFileURL.getFile());
+        } catch (ParserConfigurationException | IOException e) {
+            throw new InvalidXMLFileFormatException(xmlFileURL.getFile());
+        } finally {
+            if (parser != null)
+                returnSAXParser(schemaFileURL, parser);
+        }
+    }
+
+    private SAXParser borrowSAXParser(URL schemaURL) throws SAXException, ParserConfigurationException {
+        String    key    = schemaURL == null ? "" : schemaURL.toExternalForm();
+        SAXParser parser = pool(saxParserPools, key).poll();
+        if (parser == null) {
+            SAXParserFactory factory = saxParserFactories.get(key);
+            if (factory == null) {
+                factory = SAXParserFactory.newInstance();
+                factory.setNamespaceAware(true);
+                if (schemaURL != null)
+                    factory.setSchema(getSchema(schemaURL));
+                SAXParserFactory existing = saxParserFactories.putIfAbsent(key, factory);
+                if (existing != null)
+                    factory = existing;
+            }
+            synchronized (factory) {
+                parser = factory.newSAXParser();
+            }
+        }
+        return parser;
+    }
+
+    private void returnSAXParser(URL schemaURL, SAXParser parser) {
+        parser.reset();
+        pool(saxParserPools, schemaURL == null ? "" : schemaURL.toExternalForm()).offer(parser);
+    }
+
+    /**
+     * Adapts the SAX callbacks to an XMLElementHandler, collecting the text of
+     * each element into a single reused buffer and turning validation errors,
+     * which SAX would otherwise ignore, into exceptions.
+     */
+    private static class StreamingHandler extends DefaultHandler {
+        private final XMLElementHandler handler;
+        private final StringBuilder     text = new StringBuilder();
+
+        StreamingHandler(XMLElementHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            text.setLength(0);
+            handler.startElement(localName.isEmpty() ? qName : localName, attributes);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            handler.endElement(localName.isEmpty() ? qName : localName, text.length() == 0 ? "" : text.toString());
+            text.setLength(0);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            throw exception;
         }
     }
+
+    private static <T> Queue<T> pool(ConcurrentMap<String, Queue<T>> pools, String key) {
+        Queue<T> pool = pools.get(key);
+        if (pool == null) {
+            pool = new ConcurrentLinkedQueue<>();
+            Queue<T> existing = pools.putIfAbsent(key, pool);
+            if (existing != null)
+                pool = existing;
+        }
+        return pool;
+    }
     
     /**
      * This method reads in the xmlFile, validates it against the
@@ -133,17 +360,30 @@ public class XMLUtilities {
         }
     }
 
+    /**
+     * This method reads in the XML document at xmlFileURL and validates it against the schema at schemaFileURL in a
+     * single pass, i.e., the document is validated while its DOM tree is being built. The compiled schema and the
+     * document builders are cached, so this method is cheap to call repeatedly and safe to call from several threads.
+     *
+     * @param xmlFileURL    Location of the xml file to load.
+     * @param schemaFileURL Location of the schema file to use for validation.
+     * @return A normalized Document object fully loaded with the data found in the xml file.
+     * @throws InvalidXMLFileFormatException Thrown if the xml file cannot be read or does not validate.
+     */
     public Document loadXMLDocument(URL xmlFileURL, URL schemaFileURL) throws InvalidXMLFileFormatException {
-        if (!validateXML(xmlFileURL, schemaFileURL))
-            throw new InvalidXMLFileFormatException(xmlFileURL.getFile(), schemaFileURL.getFile());
-        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        try {
-            DocumentBuilder builder  = documentBuilderFactory.newDocumentBuilder();
-            Document        document = builder.parse(xmlFileURL.openStream());
+        DocumentBuilder builder = null;
+        try (InputStream in = xmlFileURL.openStream()) {
+            builder = borrowDocumentBuilder(schemaFileURL);
+            Document document = builder.parse(in);
             document.getDocumentElement().normalize();
             return document;
-        } catch (ParserConfigurationException | IOException | SAXException e) {
+        } catch (SAXException e) {
+            throw new InvalidXMLFileFormatException(xmlFileURL.getFile(), schemaFileURL.getFile());
+        } catch (ParserConfigurationException | IOException e) {
             throw new InvalidXMLFileFormatException(xmlFileURL.getFile());
+        } finally {
+            if (builder != null)
+                returnDocumentBuilder(schemaFileURL, builder);
         }
     }
     
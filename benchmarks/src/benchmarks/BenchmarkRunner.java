@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks of this module with the GC profiler attached, so that every benchmark reports its allocation
+ * rate ({@code gc.alloc.rate.norm} is the number of bytes allocated per operation) next to its throughput. An optional
+ * argument restricts the run to the benchmarks matching that regular expression, e.g.
+ * <pre>java benchmarks.BenchmarkRunner GuessBenchmark</pre>
+ * The results are also written to {@code benchmark-results.json}, for comparison across runs.
+ *
+ * @author Eifu Tomita
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*")
+                                              .addProfiler(GCProfiler.class)
+                                              .warmupIterations(3)
+                                              .warmupTime(TimeValue.seconds(1))
+                                              .measurementIterations(5)
+                                              .measurementTime(TimeValue.seconds(1))
+                                              .forks(1)
+                                              .resultFormat(ResultFormatType.JSON)
+                                              .result("benchmark-results.json")
+                                              .build();
+        new Runner(options).run();
+    }
+}
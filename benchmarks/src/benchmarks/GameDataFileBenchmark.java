@@ -0,0 +1,66 @@
+package benchmarks;
+
+import data.GameData;
+import data.GameDataFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures saving a game with {@link GameDataFile#saveData} and loading it back with {@link GameDataFile#loadData}.
+ *
+ * @author Eifu Tomita
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class GameDataFileBenchmark {
+
+    private GameDataFile file;
+    private GameData     saved;
+    private GameData     loaded;
+    private Path         path;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = new GameDataFile();
+        saved = new GameData(null);
+        saved.init("benchmarking");
+        for (char c : "aeiouxyz".toCharArray())
+            saved.addGuess(c);
+        loaded = new GameData(null);
+        path = Files.createTempFile("hangman-benchmark", ".json");
+        file.saveData(saved, path);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public Path save() throws IOException {
+        file.saveData(saved, path);
+        return path;
+    }
+
+    @Benchmark
+    public GameData load() throws IOException {
+        file.loadData(loaded, path);
+        return loaded;
+    }
+
+    @Benchmark
+    public GameData roundTrip() throws IOException {
+        file.saveData(saved, path);
+        file.loadData(loaded, path);
+        return loaded;
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import data.GameData;
+import engine.HangmanEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures guess handling over {@link GameData}: a whole game is played per invocation, guessing letters in order of
+ * their frequency in English until the game is over.
+ *
+ * @author Eifu Tomita
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class GuessBenchmark {
+
+    private static final char[] GUESS_ORDER = "etaoinshrdlcumwfgypbvkjxqz".toCharArray();
+
+    @Param({"hangman", "uncopyrightable"})
+    public String targetWord;
+
+    private HangmanEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new HangmanEngine(new GameData(null));
+    }
+
+    @Benchmark
+    public HangmanEngine.Status playGame() {
+        engine.newGame(targetWord);
+        for (int i = 0; !engine.isOver(); i++)
+            engine.guess(GUESS_ORDER[i]);
+        return engine.getStatus();
+    }
+
+    @Benchmark
+    public boolean guessAndCheck() {
+        engine.newGame(targetWord);
+        engine.guess('e');
+        engine.guess('z');
+        return engine.isOver();
+    }
+}
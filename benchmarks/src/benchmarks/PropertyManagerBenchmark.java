@@ -0,0 +1,106 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import propertymanager.PropertyManager;
+import xmlutils.InvalidXMLFileFormatException;
+
+import static hangman.HangmanProperties.AUTOSAVE_INTERVAL_MS;
+import static settings.AppPropertyType.APP_TITLE;
+import static settings.AppPropertyType.APP_WINDOW_WIDTH;
+import static settings.AppPropertyType.GAME_WON_MESSAGE;
+import static settings.InitializationParameters.APP_PROPERTIES_XML;
+import static settings.InitializationParameters.PROPERTIES_SCHEMA_XSD;
+import static settings.InitializationParameters.WORKSPACE_PROPERTIES_XML;
+
+/**
+ * Measures loading the property files at startup and looking up properties afterwards. Every file is loaded twice over:
+ * once from the binary snapshot that the property manager caches after the first load, as on every launch but the
+ * first, and once with the cache turned off, so that the file is actually parsed and validated.
+ *
+ * @author Eifu Tomita
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class PropertyManagerBenchmark {
+
+    private PropertyManager manager;
+
+    /** Turns the property cache off for the benchmarks that take it, and back on afterwards. */
+    @State(Scope.Benchmark)
+    public static class Uncached {
+
+        private static final String CACHE_KEY = "propertymanager.cache";
+
+        @Setup
+        public void setUp() {
+            System.setProperty(CACHE_KEY, "false");
+        }
+
+        @TearDown
+        public void tearDown() {
+            System.clearProperty(CACHE_KEY);
+        }
+    }
+
+    @Setup
+    public void setUp() throws InvalidXMLFileFormatException {
+        manager = PropertyManager.getManager();
+        manager.loadProperties(PropertyManager.class, APP_PROPERTIES_XML.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+        manager.loadProperties(PropertyManager.class, WORKSPACE_PROPERTIES_XML.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+    }
+
+    @Benchmark
+    public PropertyManager loadAppPropertiesCached() throws InvalidXMLFileFormatException {
+        manager.loadProperties(PropertyManager.class, APP_PROPERTIES_XML.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+        return manager;
+    }
+
+    @Benchmark
+    public PropertyManager loadAppPropertiesParsed(Uncached uncached) throws InvalidXMLFileFormatException {
+        manager.loadProperties(PropertyManager.class, APP_PROPERTIES_XML.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+        return manager;
+    }
+
+    @Benchmark
+    public PropertyManager loadWorkspacePropertiesCached() throws InvalidXMLFileFormatException {
+        manager.loadProperties(PropertyManager.class, WORKSPACE_PROPERTIES_XML.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+        return manager;
+    }
+
+    @Benchmark
+    public PropertyManager loadWorkspacePropertiesParsed(Uncached uncached) throws InvalidXMLFileFormatException {
+        manager.loadProperties(PropertyManager.class, WORKSPACE_PROPERTIES_XML.getParameter(), PROPERTIES_SCHEMA_XSD.getParameter());
+        return manager;
+    }
+
+    @Benchmark
+    public String getPropertyValueByEnum() {
+        return manager.getPropertyValue(GAME_WON_MESSAGE);
+    }
+
+    @Benchmark
+    public String getPropertyValueByName() {
+        return manager.getPropertyValue(APP_TITLE.toString());
+    }
+
+    @Benchmark
+    public int getWindowWidth() {
+        return manager.getInt(APP_WINDOW_WIDTH);
+    }
+
+    @Benchmark
+    public int getWindowWidthParsed() {
+        return Integer.parseInt(manager.getPropertyValue(APP_WINDOW_WIDTH));
+    }
+
+    @Benchmark
+    public int getAutosaveInterval() {
+        return manager.getInt(AUTOSAVE_INTERVAL_MS);
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import data.GameData;
+import data.WordCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures picking target words, i.e., {@link GameData#init()} (which goes through the private
+ * {@code GameData.setTargetWord()}) and the bucketed selections built on top of the word corpus.
+ *
+ * @author Eifu Tomita
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class WordSelectionBenchmark {
+
+    private GameData gamedata;
+
+    @Setup
+    public void setUp() {
+        gamedata = new GameData(null);
+        WordCorpus.getCorpus().getBuckets(); // load the corpus and its index outside of the measurements
+    }
+
+    @Benchmark
+    public String init() {
+        gamedata.init();
+        return gamedata.getTargetWord();
+    }
+
+    @Benchmark
+    public String initWithDifficulty() {
+        gamedata.initWithDifficulty(8);
+        return gamedata.getTargetWord();
+    }
+
+    @Benchmark
+    public String initWithLength() {
+        gamedata.initWithLength(6, 9);
+        return gamedata.getTargetWord();
+    }
+}
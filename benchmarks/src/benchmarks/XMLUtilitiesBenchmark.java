@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.w3c.dom.Document;
+import xmlutils.InvalidXMLFileFormatException;
+import xmlutils.XMLUtilities;
+
+import java.net.URL;
+
+import static settings.InitializationParameters.APP_PROPERTIES_XML;
+import static settings.InitializationParameters.PROPERTIES_SCHEMA_XSD;
+
+/**
+ * Measures validating and loading a property file into a DOM with {@link XMLUtilities#loadXMLDocument(URL, URL)}.
+ *
+ * @author Eifu Tomita
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class XMLUtilitiesBenchmark {
+
+    private XMLUtilities xmlUtilities;
+    private URL          xmlFile;
+    private URL          schemaFile;
+
+    @Setup
+    public void setUp() {
+        xmlUtilities = new XMLUtilities();
+        xmlFile = XMLUtilitiesBenchmark.class.getClassLoader().getResource("properties/" + APP_PROPERTIES_XML.getParameter());
+        schemaFile = XMLUtilitiesBenchmark.class.getClassLoader().getResource("properties/" + PROPERTIES_SCHEMA_XSD.getParameter());
+    }
+
+    @Benchmark
+    public Document loadXMLDocument() throws InvalidXMLFileFormatException {
+        return xmlUtilities.loadXMLDocument(xmlFile, schemaFile);
+    }
+
+    @Benchmark
+    public boolean validateXML() {
+        return xmlUtilities.validateXML(xmlFile, schemaFile);
+    }
+}